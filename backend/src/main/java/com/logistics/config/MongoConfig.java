@@ -1,9 +1,17 @@
 package com.logistics.config;
 
+import java.util.List;
+
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.lang.NonNull;
 
+import com.logistics.model.Order;
+import com.logistics.model.Product;
+import com.logistics.model.TrackingEvent;
+import com.logistics.model.User;
+
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
@@ -12,4 +20,20 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     protected String getDatabaseName() {
         return "logistics_db";
     }
+
+    // AbstractMongoClientConfiguration ignores spring.data.mongodb.auto-index-creation, so opt in here
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
+    // Hand-written converters for the hot entities: no reflection or constructor defaults on read
+    @Override
+    protected void configureConverters(MongoCustomConversions.MongoConverterConfigurationAdapter adapter) {
+        adapter.registerConverters(List.of(
+                new Order.ReadConverter(), new Order.WriteConverter(),
+                new TrackingEvent.ReadConverter(), new TrackingEvent.WriteConverter(),
+                new Product.ReadConverter(), new Product.WriteConverter(),
+                new User.ReadConverter(), new User.WriteConverter()));
+    }
 }
@@ -0,0 +1,196 @@
+package com.logistics.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.logistics.model.Order;
+import com.mongodb.client.FindIterable;
+
+/**
+ * Explains the query behind every repository finder and flags any that would scan a whole
+ * collection. Runs once at startup, after indexes are created, and is reported under
+ * /actuator/health as "queryPlan".
+ */
+@Component("queryPlan")
+public class QueryPlanHealthIndicator implements HealthIndicator {
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanHealthIndicator.class);
+
+    private static final String MIGRATION_SCAN = "OrderSchemaMigrator.migrateBatch";
+    private static final List<Double> PROBE_POINT = List.of(72.87, 19.07);
+
+    // Shapes of the finder queries; the values only need the right types
+    private static final List<Probe> PROBES = List.of(
+            new Probe("OrderRepository.findByOrderNumber", "orders",
+                    new Document("orderNumber", "ORD-PROBE"), null),
+            new Probe("OrderRepository.findByShippingTrackingNumber", "orders",
+                    new Document("shipping.trackingNumber", "TRK-PROBE"), null),
+            new Probe("OrderRepository.findBySellerIdOrderByCreatedAtDesc", "orders",
+                    new Document("sellerId", "probe"), new Document("createdAt", -1)),
+            new Probe("OrderRepository.findByBuyerIdOrderByCreatedAtDesc", "orders",
+                    new Document("buyerId", "probe"), new Document("createdAt", -1)),
+            new Probe("OrderRepository.findByCourierId", "orders",
+                    new Document("courierId", "probe"), null),
+            new Probe("OrderRepository.findByStatus", "orders",
+                    new Document("status", "PENDING"), null),
+            new Probe("OrderRepository.findSummaryPageByParty(seller)", "orders",
+                    new Document("sellerId", "probe").append("status", new Document("$in", List.of("PENDING"))),
+                    new Document("createdAt", -1).append("_id", -1)),
+            new Probe("OrderRepository.findSummaryPageByParty(buyer)", "orders",
+                    new Document("buyerId", "probe").append("status", new Document("$in", List.of("PENDING"))),
+                    new Document("createdAt", -1).append("_id", -1)),
+            new Probe("OrderRepository.findSummaryPageByParty(courier)", "orders",
+                    new Document("courierId", "probe").append("status", new Document("$in", List.of("PENDING"))),
+                    new Document("createdAt", -1).append("_id", -1)),
+            new Probe("OrderRepository.findSummariesWithinRadius", "orders",
+                    new Document("sellerId", "probe").append("shipping.to.location", new Document("$geoWithin",
+                            new Document("$centerSphere", List.of(PROBE_POINT, 0.001)))), null),
+            new Probe("OrderRepository.findSummariesWithinPolygon", "orders",
+                    new Document("sellerId", "probe").append("shipping.to.location", new Document("$geoWithin",
+                            new Document("$geometry", new Document("type", "Polygon").append("coordinates", List.of(List.of(
+                                    List.of(72.8, 19.0), List.of(72.9, 19.0), List.of(72.9, 19.1), List.of(72.8, 19.0))))))), null),
+            new Probe("OrderRepository.findNearestPickups", "orders",
+                    new Document("shipping.from.location", new Document("$nearSphere",
+                            new Document("$geometry", new Document("type", "Point").append("coordinates", PROBE_POINT)))
+                            .append("$maxDistance", 5000.0))
+                            .append("status", "CONFIRMED")
+                            .append("courierId", new Document("$in", Arrays.asList(null, "probe"))), null),
+            new Probe(MIGRATION_SCAN, "orders",
+                    new Document("_v", new Document("$ne", Order.SCHEMA_VERSION)), null),
+            new Probe("CourierRepository.findByIsActiveTrue", "couriers",
+                    new Document("isActive", true), null),
+            new Probe("CourierRepository.findByServiceTypeAndIsActiveTrue", "couriers",
+                    new Document("serviceType", "EXPRESS").append("isActive", true), null),
+            new Probe("UserRepository.findByEmail", "users",
+                    new Document("email", "probe@example.com"), null),
+            new Probe("UserRepository.findIdAndEmailByEmailIn", "users",
+                    new Document("email", new Document("$in", List.of("probe@example.com"))), null),
+            new Probe("UserRepository.findIdAndEmailByIdIn", "users",
+                    new Document("_id", new Document("$in", List.of(new ObjectId()))), null),
+            new Probe("RoleRepository.findByName", "roles",
+                    new Document("name", "ROLE_BUYER"), null),
+            new Probe("TokenRevocationService.refresh", "users",
+                    new Document("tokenVersionUpdatedAt", new Document("$gte", new Date(0))), null),
+            new Probe("CourierAssignmentService.reloadFleet", "users",
+                    new Document("roles.name", "ROLE_COURIER").append("isActive", true), null),
+            new Probe("CourierAssignmentService.enqueueUnassigned", "orders",
+                    new Document("status", "CONFIRMED").append("courierId", null), null),
+            new Probe("OrderStatsService.rebuild", "order_counters",
+                    new Document("syncedAt", new Document("$lt", new Date(0))), null));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.queryPlanCheckFailOnCollscan:false}")
+    private boolean failOnCollscan;
+
+    // The _v index only exists while the migrator runs
+    @Value("${app.orderMigrationEnabled:true}")
+    private boolean migrationEnabled;
+
+    private volatile Map<String, String> plans = Map.of();
+    private volatile List<String> collectionScans = List.of();
+    private volatile String error;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        Map<String, String> checked = new LinkedHashMap<>();
+        List<String> scans = new ArrayList<>();
+        try {
+            for (Probe probe : PROBES) {
+                if (probe.finder.equals(MIGRATION_SCAN) && !migrationEnabled) {
+                    continue;
+                }
+                String stages = String.join(" > ", stages(explain(probe)));
+                checked.put(probe.finder, stages);
+                if (stages.contains("COLLSCAN")) {
+                    scans.add(probe.finder);
+                    logger.warn("{} scans the whole {} collection: {}", probe.finder, probe.collection, stages);
+                }
+            }
+            error = null;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            logger.warn("Query plan check failed: {}", e.getMessage());
+        }
+        plans = checked;
+        collectionScans = scans;
+        if (error == null && scans.isEmpty()) {
+            logger.info("Query plan check passed for {} finders", checked.size());
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = error == null && (collectionScans.isEmpty() || !failOnCollscan)
+                ? Health.up()
+                : Health.down();
+        builder.withDetail("collectionScans", collectionScans).withDetail("plans", plans);
+        if (error != null) {
+            builder.withDetail("error", error);
+        }
+        return builder.build();
+    }
+
+    private Document explain(Probe probe) {
+        FindIterable<Document> find = mongoTemplate.getCollection(probe.collection).find(probe.filter);
+        if (probe.sort != null) {
+            find = find.sort(probe.sort);
+        }
+        Document explain = find.explain();
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        return queryPlanner != null ? queryPlanner.get("winningPlan", Document.class) : explain;
+    }
+
+    // Stage names from the root of the winning plan down, e.g. FETCH > IXSCAN
+    private static List<String> stages(Document plan) {
+        List<String> stages = new ArrayList<>();
+        collectStages(plan, stages);
+        return stages;
+    }
+
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            for (Object child : document.values()) {
+                collectStages(child, stages);
+            }
+        } else if (node instanceof List<?> children) {
+            for (Object child : children) {
+                collectStages(child, stages);
+            }
+        }
+    }
+
+    private static final class Probe {
+        final String finder;
+        final String collection;
+        final Document filter;
+        final Document sort;
+
+        Probe(String finder, String collection, Document filter, Document sort) {
+            this.finder = finder;
+            this.collection = collection;
+            this.filter = filter;
+            this.sort = sort;
+        }
+    }
+}
@@ -4,16 +4,22 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.logistics.dto.LoginRequest;
+import com.logistics.dto.MessageResponse;
 import com.logistics.dto.SignupRequest;
+import com.logistics.security.PasswordHashingBusyException;
+import com.logistics.security.PasswordHashingExecutor;
 import com.logistics.service.AuthService;
 
 import jakarta.validation.Valid;
@@ -28,6 +34,9 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         return authService.authenticateUser(loginRequest);
@@ -42,7 +51,7 @@ public class AuthController {
     @PostMapping("/generate-hash")
     public ResponseEntity<?> generateHash(@RequestBody Map<String, String> request) {
         String plainPassword = request.get("password");
-        String hash = passwordEncoder.encode(plainPassword);
+        String hash = passwordHashingExecutor.execute(() -> passwordEncoder.encode(plainPassword));
         
         Map<String, Object> response = new HashMap<>();
         response.put("plainPassword", plainPassword);
@@ -52,5 +61,13 @@ public class AuthController {
         
         return ResponseEntity.ok(response);
     }
-}
 
+    // The one place a saturated hashing pool turns into a response, for sign-in, sign-up and hashing alike
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<?> handleHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Server is busy, please try again shortly."));
+    }
+}
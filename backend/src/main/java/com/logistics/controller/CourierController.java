@@ -1,11 +1,22 @@
 package com.logistics.controller;
 
+import com.logistics.dto.MessageResponse;
+import com.logistics.dto.ShippingQuote;
 import com.logistics.model.Courier;
+import com.logistics.model.Order;
 import com.logistics.repository.CourierRepository;
+import com.logistics.security.UserPrincipal;
+import com.logistics.service.CourierCoverageIndex;
+import com.logistics.service.RoutePlannerService;
+import com.logistics.service.ShippingQuoteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -16,10 +27,41 @@ public class CourierController {
     @Autowired
     private CourierRepository courierRepository;
 
+    @Autowired
+    private ShippingQuoteService shippingQuoteService;
+
+    @Autowired
+    private CourierCoverageIndex courierCoverageIndex;
+
+    @Autowired
+    private RoutePlannerService routePlannerService;
+
+    @Value("${app.quoteBatchMaxSize:1000}")
+    private int quoteBatchMaxSize;
+
+    // Active couriers, optionally only those serving a route; from and to are cities or postal codes
     @GetMapping
-    public ResponseEntity<List<Courier>> getAllCouriers() {
-        List<Courier> couriers = courierRepository.findByIsActiveTrue();
-        return ResponseEntity.ok(couriers);
+    public ResponseEntity<List<Courier>> getAllCouriers(@RequestParam(required = false) String from,
+                                                        @RequestParam(required = false) String to) {
+        if (from == null && to == null) {
+            return ResponseEntity.ok(courierCoverageIndex.getActiveCouriers());
+        }
+        return ResponseEntity.ok(courierCoverageIndex.findEligible(from, to));
+    }
+
+    // The current courier's open orders in the order to visit them, from lat/lng or their profile address
+    @GetMapping("/me/route")
+    @PreAuthorize("hasRole('COURIER')")
+    public ResponseEntity<?> getMyRoute(@RequestParam(required = false) Double lat,
+                                        @RequestParam(required = false) Double lng,
+                                        Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+        try {
+            return ResponseEntity.ok(routePlannerService.planRoute(userPrincipal.getId(), lat, lng));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
@@ -31,15 +73,67 @@ public class CourierController {
 
     @PostMapping("/quote")
     public ResponseEntity<?> getShippingQuote(@RequestBody QuoteRequest quoteRequest) {
-        // Implementation for shipping quote calculation
-        return ResponseEntity.ok().build();
+        String error = validate(quoteRequest);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + error));
+        }
+        return ResponseEntity.ok(quote(quoteRequest));
+    }
+
+    // Quotes many shipments in one call, e.g. every cart on a checkout page; results follow request order
+    @PostMapping("/quote/batch")
+    public ResponseEntity<?> getShippingQuotes(@RequestBody List<QuoteRequest> quoteRequests) {
+        if (quoteRequests == null || quoteRequests.isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: No quote requests"));
+        }
+        if (quoteRequests.size() > quoteBatchMaxSize) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: At most " + quoteBatchMaxSize + " quote requests per batch"));
+        }
+
+        List<List<ShippingQuote>> quotes = new ArrayList<>(quoteRequests.size());
+        for (int i = 0; i < quoteRequests.size(); i++) {
+            String error = validate(quoteRequests.get(i));
+            if (error != null) {
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Request " + i + ": " + error));
+            }
+            quotes.add(quote(quoteRequests.get(i)));
+        }
+        return ResponseEntity.ok(quotes);
+    }
+
+    private List<ShippingQuote> quote(QuoteRequest request) {
+        Order.Dimensions dimensions = null;
+        if (request.getLength() > 0 && request.getWidth() > 0 && request.getHeight() > 0) {
+            dimensions = new Order.Dimensions();
+            dimensions.setLength(request.getLength());
+            dimensions.setWidth(request.getWidth());
+            dimensions.setHeight(request.getHeight());
+        }
+        return shippingQuoteService.quote(request.getFromCity(), request.getFromPostalCode(),
+                request.getToCity(), request.getToPostalCode(), request.getWeight(), dimensions, request.getServiceType());
+    }
+
+    private static String validate(QuoteRequest request) {
+        if (request == null || request.getFromCity() == null || request.getToCity() == null) {
+            return "fromCity and toCity are required";
+        }
+        if (!(request.getWeight() > 0)) {
+            return "weight must be positive";
+        }
+        return null;
     }
 
     public static class QuoteRequest {
         private String fromCity;
         private String toCity;
+        private String fromPostalCode; // optional
+        private String toPostalCode;
         private double weight;
         private String serviceType;
+        private double length; // cm, optional
+        private double width;
+        private double height;
 
         // Getters and setters
         public String getFromCity() { return fromCity; }
@@ -48,10 +142,25 @@ public class CourierController {
         public String getToCity() { return toCity; }
         public void setToCity(String toCity) { this.toCity = toCity; }
 
+        public String getFromPostalCode() { return fromPostalCode; }
+        public void setFromPostalCode(String fromPostalCode) { this.fromPostalCode = fromPostalCode; }
+
+        public String getToPostalCode() { return toPostalCode; }
+        public void setToPostalCode(String toPostalCode) { this.toPostalCode = toPostalCode; }
+
         public double getWeight() { return weight; }
         public void setWeight(double weight) { this.weight = weight; }
 
         public String getServiceType() { return serviceType; }
         public void setServiceType(String serviceType) { this.serviceType = serviceType; }
+
+        public double getLength() { return length; }
+        public void setLength(double length) { this.length = length; }
+
+        public double getWidth() { return width; }
+        public void setWidth(double width) { this.width = width; }
+
+        public double getHeight() { return height; }
+        public void setHeight(double height) { this.height = height; }
     }
 }
@@ -1,8 +1,12 @@
 package com.logistics.controller;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,14 +20,25 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.logistics.dto.BulkRowResult;
 import com.logistics.dto.MessageResponse;
+import com.logistics.dto.OrderPage;
 import com.logistics.dto.OrderRequest;
+import com.logistics.dto.OrderStats;
+import com.logistics.dto.OrderSummary;
+import com.logistics.dto.ScanBatchRequest;
 import com.logistics.dto.StatusUpdateRequest;
+import com.logistics.dto.ZoneQuery;
 import com.logistics.model.Order;
 import com.logistics.model.OrderStatus;
 import com.logistics.security.UserPrincipal;
+import com.logistics.service.BulkOrderService;
+import com.logistics.service.OrderScanService;
 import com.logistics.service.OrderService;
+import com.logistics.service.OrderStatsService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -34,6 +49,15 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private OrderScanService orderScanService;
+
     // Create a new order (SELLER only)
     @PostMapping
     @PreAuthorize("hasRole('SELLER')")
@@ -49,14 +73,108 @@ public class OrderController {
         }
     }
 
-    // Get orders for the current authenticated user
+    // Create orders in bulk from an NDJSON or CSV body (SELLER only), streaming one NDJSON result per row
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"}, produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('SELLER')")
+    public void createOrdersInBulk(HttpServletRequest request, HttpServletResponse response,
+                                   Authentication authentication) throws IOException {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        boolean csv = request.getContentType().toLowerCase().startsWith("text/csv");
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        bulkOrderService.importOrders(request.getReader(), csv, userPrincipal.getId(), response.getWriter());
+    }
+
+    // Get a page of orders for the current authenticated user, newest first
     @GetMapping
-    public ResponseEntity<List<Order>> getUserOrders(Authentication authentication) {
+    public ResponseEntity<?> getUserOrders(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int limit,
+                                           @RequestParam(required = false) List<OrderStatus> status,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                           Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        String role = userPrincipal.getAuthorities().iterator().next().getAuthority();
+
+        try {
+            OrderPage page = orderService.getOrderPage(userPrincipal.getId(), role, status, from, to, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    // Dashboard statistics for the current authenticated user
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStats> getUserOrderStats(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        String role = userPrincipal.getAuthorities().iterator().next().getAuthority();
+
+        return ResponseEntity.ok(orderStatsService.getStats(userPrincipal.getId(), role));
+    }
+
+    // The current user's orders with a pickup (end=from) or delivery (end=to) point within radiusKm of lat/lng
+    @GetMapping("/within")
+    public ResponseEntity<?> getOrdersWithinRadius(@RequestParam double lat,
+                                                   @RequestParam double lng,
+                                                   @RequestParam double radiusKm,
+                                                   @RequestParam(defaultValue = "to") String end,
+                                                   @RequestParam(required = false) List<OrderStatus> status,
+                                                   @RequestParam(defaultValue = "200") int limit,
+                                                   Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        String role = userPrincipal.getAuthorities().iterator().next().getAuthority();
+
+        try {
+            List<OrderSummary> orders = orderService.findOrdersWithinRadius(userPrincipal.getId(), role, end,
+                    lat, lng, radiusKm, status, limit);
+            return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    // The current user's orders with a pickup or delivery point inside a polygon, e.g. a delivery zone
+    @PostMapping("/within-zone")
+    public ResponseEntity<?> getOrdersWithinZone(@Valid @RequestBody ZoneQuery zone,
+                                                 Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         String role = userPrincipal.getAuthorities().iterator().next().getAuthority();
 
-        List<Order> orders = orderService.getOrdersByUserId(userPrincipal.getId(), role);
-        return ResponseEntity.ok(orders);
+        try {
+            List<OrderSummary> orders = orderService.findOrdersWithinZone(userPrincipal.getId(), role, zone.getEnd(),
+                    zone.getCoordinates(), zone.getStatus(), zone.getLimit());
+            return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    // Confirmed orders awaiting pickup near lat/lng, unassigned or assigned to the current courier (COURIER only)
+    @GetMapping("/pickups/nearest")
+    @PreAuthorize("hasRole('COURIER')")
+    public ResponseEntity<?> getNearestPickups(@RequestParam double lat,
+                                               @RequestParam double lng,
+                                               @RequestParam(defaultValue = "25") double maxKm,
+                                               @RequestParam(defaultValue = "50") int limit,
+                                               Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+        try {
+            return ResponseEntity.ok(orderService.findNearestPickups(userPrincipal.getId(), lat, lng, maxKm, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
 
     // Get a specific order by ID
@@ -96,6 +214,22 @@ public class OrderController {
         }
     }
 
+    // Apply a batch of parcel scans in one write (COURIER or SELLER only); reports each scan's outcome
+    @PostMapping("/scans")
+    @PreAuthorize("hasRole('COURIER') or hasRole('SELLER')")
+    public ResponseEntity<?> applyScans(@Valid @RequestBody ScanBatchRequest request,
+                                        Authentication authentication) {
+        try {
+            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+            List<BulkRowResult> results = orderScanService.applyScans(request.getScans(), userPrincipal.getName());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
     // Flag an order for issues (BUYER only)
     @PostMapping("/{id}/flag")
     @PreAuthorize("hasRole('BUYER')")
@@ -3,6 +3,7 @@ package com.logistics.controller;
 import com.logistics.dto.MessageResponse;
 import com.logistics.dto.TrackingResponse;
 import com.logistics.model.Order;
+import com.logistics.service.OrderNumberGenerator;
 import com.logistics.service.TrackingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -18,10 +19,20 @@ public class TrackingController {
     @Autowired
     private TrackingService trackingService;
 
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
     @GetMapping("/public/{trackingNumber}")
     public ResponseEntity<?> trackOrder(@PathVariable String trackingNumber) {
+        // Typos fail the check character here instead of costing a lookup
+        String normalized = orderNumberGenerator.normalizeTrackingNumber(trackingNumber);
+        if (normalized == null) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Invalid tracking number"));
+        }
+
         try {
-            Optional<Order> orderOpt = trackingService.getOrderByTrackingNumber(trackingNumber);
+            Optional<Order> orderOpt = trackingService.getOrderByTrackingNumber(normalized);
             
             if (orderOpt.isPresent()) {
                 Order order = orderOpt.get();
@@ -0,0 +1,48 @@
+package com.logistics.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one row of a bulk request, streamed back as a line of NDJSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRowResult {
+    private final long row;
+    private final boolean success;
+    private String orderId;
+    private String trackingNumber;
+    private String error;
+    private Boolean current; // scans only: false when a newer update already set the status
+
+    private BulkRowResult(long row, boolean success) {
+        this.row = row;
+        this.success = success;
+    }
+
+    public static BulkRowResult succeeded(long row, String orderId, String trackingNumber) {
+        BulkRowResult result = new BulkRowResult(row, true);
+        result.orderId = orderId;
+        result.trackingNumber = trackingNumber;
+        return result;
+    }
+
+    public static BulkRowResult scanned(long row, String orderId, String trackingNumber, boolean current) {
+        BulkRowResult result = succeeded(row, orderId, trackingNumber);
+        result.current = current;
+        return result;
+    }
+
+    public static BulkRowResult failed(long row, String error) {
+        BulkRowResult result = new BulkRowResult(row, false);
+        result.error = error;
+        return result;
+    }
+
+    // Getters
+    public long getRow() { return row; }
+    public boolean isSuccess() { return success; }
+    public String getOrderId() { return orderId; }
+    public String getTrackingNumber() { return trackingNumber; }
+    public String getError() { return error; }
+    public Boolean getCurrent() { return current; }
+}
@@ -0,0 +1,20 @@
+package com.logistics.dto;
+
+import java.util.List;
+
+public class OrderPage {
+    private List<OrderSummary> orders;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public OrderPage(List<OrderSummary> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters
+    public List<OrderSummary> getOrders() { return orders; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+}
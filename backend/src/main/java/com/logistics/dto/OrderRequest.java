@@ -1,6 +1,7 @@
 package com.logistics.dto;
 
 import com.logistics.model.Address;
+import com.logistics.model.Order;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -20,6 +21,8 @@ public class OrderRequest {
     @Positive
     private Double productValue;
     
+    private Order.Dimensions dimensions; // optional, in cm
+
     @NotNull
     private Address fromAddress;
     
@@ -45,6 +48,9 @@ public class OrderRequest {
     public Double getProductValue() { return productValue; }
     public void setProductValue(Double productValue) { this.productValue = productValue; }
 
+    public Order.Dimensions getDimensions() { return dimensions; }
+    public void setDimensions(Order.Dimensions dimensions) { this.dimensions = dimensions; }
+
     public Address getFromAddress() { return fromAddress; }
     public void setFromAddress(Address fromAddress) { this.fromAddress = fromAddress; }
 
@@ -0,0 +1,51 @@
+package com.logistics.dto;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.logistics.model.OrderStatus;
+
+public class OrderStats {
+    public static final Set<OrderStatus> ACTIVE_STATUSES = EnumSet.of(
+            OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.SHIPPED,
+            OrderStatus.IN_TRANSIT, OrderStatus.OUT_FOR_DELIVERY);
+
+    private final Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+    private long totalOrders;
+    private long activeOrders;
+    private long deliveredOrders;
+    private long flaggedOrders;
+    private long deliveredToday;
+    private double deliveredRevenue;
+
+    public void add(OrderStatus status, long count) {
+        byStatus.merge(status, count, Long::sum);
+        totalOrders += count;
+        if (ACTIVE_STATUSES.contains(status)) {
+            activeOrders += count;
+        } else if (status == OrderStatus.DELIVERED) {
+            deliveredOrders += count;
+        } else if (status == OrderStatus.FLAGGED) {
+            flaggedOrders += count;
+        }
+    }
+
+    // Getters and Setters
+    public Map<OrderStatus, Long> getByStatus() { return byStatus; }
+
+    public long getTotalOrders() { return totalOrders; }
+
+    public long getActiveOrders() { return activeOrders; }
+
+    public long getDeliveredOrders() { return deliveredOrders; }
+
+    public long getFlaggedOrders() { return flaggedOrders; }
+
+    public long getDeliveredToday() { return deliveredToday; }
+    public void setDeliveredToday(long deliveredToday) { this.deliveredToday = deliveredToday; }
+
+    public double getDeliveredRevenue() { return deliveredRevenue; }
+    public void setDeliveredRevenue(double deliveredRevenue) { this.deliveredRevenue = deliveredRevenue; }
+}
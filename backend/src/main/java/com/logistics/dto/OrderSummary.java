@@ -0,0 +1,77 @@
+package com.logistics.dto;
+
+import java.time.LocalDateTime;
+
+import com.logistics.model.OrderStatus;
+
+/**
+ * List-view projection of an order. Built straight from a field-projected document,
+ * so the timeline and full addresses are never read for dashboard listings.
+ */
+public class OrderSummary {
+    private String id;
+    private String orderNumber;
+    private String trackingNumber;
+    private OrderStatus status;
+    private String productName;
+    private String courierService;
+    private String originCity;
+    private String destinationCity;
+    private Double originLatitude;
+    private Double originLongitude;
+    private Double destinationLatitude;
+    private Double destinationLongitude;
+    private double total;
+    private LocalDateTime estimatedDelivery;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getCourierService() { return courierService; }
+    public void setCourierService(String courierService) { this.courierService = courierService; }
+
+    public String getOriginCity() { return originCity; }
+    public void setOriginCity(String originCity) { this.originCity = originCity; }
+
+    public String getDestinationCity() { return destinationCity; }
+    public void setDestinationCity(String destinationCity) { this.destinationCity = destinationCity; }
+
+    public Double getOriginLatitude() { return originLatitude; }
+    public void setOriginLatitude(Double originLatitude) { this.originLatitude = originLatitude; }
+
+    public Double getOriginLongitude() { return originLongitude; }
+    public void setOriginLongitude(Double originLongitude) { this.originLongitude = originLongitude; }
+
+    public Double getDestinationLatitude() { return destinationLatitude; }
+    public void setDestinationLatitude(Double destinationLatitude) { this.destinationLatitude = destinationLatitude; }
+
+    public Double getDestinationLongitude() { return destinationLongitude; }
+    public void setDestinationLongitude(Double destinationLongitude) { this.destinationLongitude = destinationLongitude; }
+
+    public double getTotal() { return total; }
+    public void setTotal(double total) { this.total = total; }
+
+    public LocalDateTime getEstimatedDelivery() { return estimatedDelivery; }
+    public void setEstimatedDelivery(LocalDateTime estimatedDelivery) { this.estimatedDelivery = estimatedDelivery; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,67 @@
+package com.logistics.dto;
+
+import java.util.List;
+
+/**
+ * A courier's open orders in the order they should be visited. Orders still waiting for
+ * pickup are visited at their origin, parcels already collected at their destination.
+ */
+public class RoutePlan {
+    private final String courierId;
+    private final Double startLatitude; // null when the route starts at its first stop
+    private final Double startLongitude;
+    private final List<Stop> stops;
+    private final List<String> unroutedOrderIds; // open orders without coordinates
+    private final double totalKm;
+    private final long planningMs;
+
+    public RoutePlan(String courierId, Double startLatitude, Double startLongitude, List<Stop> stops,
+                     List<String> unroutedOrderIds, double totalKm, long planningMs) {
+        this.courierId = courierId;
+        this.startLatitude = startLatitude;
+        this.startLongitude = startLongitude;
+        this.stops = stops;
+        this.unroutedOrderIds = unroutedOrderIds;
+        this.totalKm = totalKm;
+        this.planningMs = planningMs;
+    }
+
+    // Getters
+    public String getCourierId() { return courierId; }
+    public Double getStartLatitude() { return startLatitude; }
+    public Double getStartLongitude() { return startLongitude; }
+    public List<Stop> getStops() { return stops; }
+    public List<String> getUnroutedOrderIds() { return unroutedOrderIds; }
+    public double getTotalKm() { return totalKm; }
+    public long getPlanningMs() { return planningMs; }
+
+    public static class Stop {
+        private final String orderId;
+        private final String orderNumber;
+        private final String type; // PICKUP or DELIVERY
+        private final String city;
+        private final double latitude;
+        private final double longitude;
+        private final double legKm; // from the previous stop or the start
+
+        public Stop(String orderId, String orderNumber, String type, String city,
+                    double latitude, double longitude, double legKm) {
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.type = type;
+            this.city = city;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.legKm = legKm;
+        }
+
+        // Getters
+        public String getOrderId() { return orderId; }
+        public String getOrderNumber() { return orderNumber; }
+        public String getType() { return type; }
+        public String getCity() { return city; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public double getLegKm() { return legKm; }
+    }
+}
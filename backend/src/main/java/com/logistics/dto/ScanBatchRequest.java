@@ -0,0 +1,16 @@
+package com.logistics.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+public class ScanBatchRequest {
+    @NotEmpty
+    @Valid
+    private List<ScanRequest> scans;
+
+    // Getters and Setters
+    public List<ScanRequest> getScans() { return scans; }
+    public void setScans(List<ScanRequest> scans) { this.scans = scans; }
+}
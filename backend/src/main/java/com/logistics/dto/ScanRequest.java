@@ -0,0 +1,41 @@
+package com.logistics.dto;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class ScanRequest {
+    // One of orderId or trackingNumber identifies the parcel
+    private String orderId;
+
+    private String trackingNumber;
+
+    @NotBlank
+    private String status;
+
+    private String location;
+
+    private String description;
+
+    // When the parcel was scanned; defaults to the time the batch is applied
+    private LocalDateTime timestamp;
+
+    // Getters and Setters
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,34 @@
+package com.logistics.dto;
+
+/**
+ * Price one courier would charge for a shipment, as returned by the quote endpoints.
+ */
+public class ShippingQuote {
+    private final String courierId;
+    private final String courierName;
+    private final String serviceType;
+    private final double chargeableWeight;
+    private final double cost;
+    private final int estimatedHours;
+    private final double rating;
+
+    public ShippingQuote(String courierId, String courierName, String serviceType, double chargeableWeight,
+                         double cost, int estimatedHours, double rating) {
+        this.courierId = courierId;
+        this.courierName = courierName;
+        this.serviceType = serviceType;
+        this.chargeableWeight = chargeableWeight;
+        this.cost = cost;
+        this.estimatedHours = estimatedHours;
+        this.rating = rating;
+    }
+
+    // Getters
+    public String getCourierId() { return courierId; }
+    public String getCourierName() { return courierName; }
+    public String getServiceType() { return serviceType; }
+    public double getChargeableWeight() { return chargeableWeight; }
+    public double getCost() { return cost; }
+    public int getEstimatedHours() { return estimatedHours; }
+    public double getRating() { return rating; }
+}
@@ -0,0 +1,35 @@
+package com.logistics.dto;
+
+import java.util.List;
+
+import com.logistics.model.OrderStatus;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class ZoneQuery {
+    // "from" to match pickup addresses, "to" to match delivery addresses
+    private String end = "to";
+
+    // Outer ring of the zone as GeoJSON [longitude, latitude] pairs; closed automatically
+    @NotNull
+    @Size(min = 3)
+    private List<List<Double>> coordinates;
+
+    private List<OrderStatus> status;
+
+    private int limit = 200;
+
+    // Getters and Setters
+    public String getEnd() { return end; }
+    public void setEnd(String end) { this.end = end; }
+
+    public List<List<Double>> getCoordinates() { return coordinates; }
+    public void setCoordinates(List<List<Double>> coordinates) { this.coordinates = coordinates; }
+
+    public List<OrderStatus> getStatus() { return status; }
+    public void setStatus(List<OrderStatus> status) { this.status = status; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+}
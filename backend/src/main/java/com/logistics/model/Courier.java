@@ -1,11 +1,13 @@
 package com.logistics.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
 
 @Document(collection = "couriers")
+@CompoundIndex(name = "active_service", def = "{'isActive': 1, 'serviceType': 1}")
 public class Courier {
     @Id
     private String id;
@@ -13,9 +15,11 @@ public class Courier {
     private String name;
     private String serviceType;
     private Pricing pricing;
-    private List<String> coverage;
+    private List<String> coverage; // city names or postal code prefixes; empty = everywhere
     private int avgDeliveryTime; // in hours
     private double rating;
+    private double vehicleCapacityKg; // per courier of the company; 0 = app default
+    private double vehicleCapacityM3;
     private boolean isActive;
 
     public Courier() {
@@ -45,6 +49,12 @@ public class Courier {
     public double getRating() { return rating; }
     public void setRating(double rating) { this.rating = rating; }
 
+    public double getVehicleCapacityKg() { return vehicleCapacityKg; }
+    public void setVehicleCapacityKg(double vehicleCapacityKg) { this.vehicleCapacityKg = vehicleCapacityKg; }
+
+    public double getVehicleCapacityM3() { return vehicleCapacityM3; }
+    public void setVehicleCapacityM3(double vehicleCapacityM3) { this.vehicleCapacityM3 = vehicleCapacityM3; }
+
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
 
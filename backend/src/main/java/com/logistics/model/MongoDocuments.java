@@ -0,0 +1,125 @@
+package com.logistics.model;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Field access shared by the hand-written entity converters. Values are written the way
+ * MappingMongoConverter writes them, so documents stay readable by either path.
+ */
+final class MongoDocuments {
+
+    private MongoDocuments() {
+    }
+
+    // String IDs that look like ObjectIds are stored as ObjectIds
+    static Object writeId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    static String readId(Object value) {
+        if (value instanceof ObjectId objectId) {
+            return objectId.toHexString();
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    static Date writeDateTime(LocalDateTime value) {
+        return value != null ? Date.from(value.atZone(ZoneId.systemDefault()).toInstant()) : null;
+    }
+
+    // Accepts BSON dates, epoch millis and the ISO strings mongoimport leaves in seed data, with or without an offset
+    static LocalDateTime readDateTime(Object value) {
+        if (value instanceof Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof Long millis) {
+            return LocalDateTime.ofInstant(new Date(millis).toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof String text) {
+            try {
+                return LocalDateTime.parse(text);
+            } catch (DateTimeParseException e) {
+                return OffsetDateTime.parse(text).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+        }
+        return null;
+    }
+
+    static double readDouble(Document document, String key) {
+        return document.get(key) instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    static long readLong(Document document, String key) {
+        return document.get(key) instanceof Number number ? number.longValue() : 0L;
+    }
+
+    static boolean readBoolean(Document document, String key, boolean defaultValue) {
+        return document.get(key) instanceof Boolean flag ? flag : defaultValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Object> readList(Document document, String key) {
+        return document.get(key) instanceof List<?> list ? (List<Object>) list : List.of();
+    }
+
+    static <E extends Enum<E>> E readEnum(Class<E> type, Object value) {
+        return value instanceof String name ? Enum.valueOf(type, name) : null;
+    }
+
+    // Leaves nulls out, as the mapping converter does
+    static void put(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    static Document writeAddress(Address address) {
+        if (address == null) {
+            return null;
+        }
+        Document document = new Document();
+        put(document, "street", address.getStreet());
+        put(document, "city", address.getCity());
+        put(document, "state", address.getState());
+        put(document, "postalCode", address.getPostalCode());
+        put(document, "country", address.getCountry());
+        document.put("latitude", address.getLatitude());
+        document.put("longitude", address.getLongitude());
+        // GeoJSON copy for the 2dsphere indexes; 0,0 means no coordinates and is left out
+        if (address.getLatitude() != 0.0 || address.getLongitude() != 0.0) {
+            document.put("location", new Document("type", "Point")
+                    .append("coordinates", List.of(address.getLongitude(), address.getLatitude())));
+        }
+        return document;
+    }
+
+    static Address readAddress(Object value) {
+        if (!(value instanceof Document document)) {
+            return null;
+        }
+        Address address = new Address();
+        address.setStreet(document.getString("street"));
+        address.setCity(document.getString("city"));
+        address.setState(document.getString("state"));
+        address.setPostalCode(document.getString("postalCode"));
+        address.setCountry(document.getString("country"));
+        address.setLatitude(readDouble(document, "latitude"));
+        address.setLongitude(readDouble(document, "longitude"));
+        if (!document.containsKey("latitude") && document.get("location") instanceof Document location) {
+            List<Object> coordinates = readList(location, "coordinates");
+            if (coordinates.size() == 2 && coordinates.get(0) instanceof Number lon && coordinates.get(1) instanceof Number lat) {
+                address.setLongitude(lon.doubleValue());
+                address.setLatitude(lat.doubleValue());
+            }
+        }
+        return address;
+    }
+}
@@ -3,20 +3,36 @@ package com.logistics.model;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "orders")
+@CompoundIndex(name = "seller_created", def = "{'sellerId': 1, 'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "buyer_created", def = "{'buyerId': 1, 'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "courier_created", def = "{'courierId': 1, 'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "status_created", def = "{'status': 1, 'createdAt': -1}")
+@CompoundIndex(name = "pickup_location", def = "{'shipping.from.location': '2dsphere'}")
+@CompoundIndex(name = "delivery_location", def = "{'shipping.to.location': '2dsphere'}")
 public class Order {
+    // Written as _v. 2: compact timeline events (see TrackingEvent); 3: GeoJSON location on shipping addresses
+    public static final int SCHEMA_VERSION = 3;
+
     @Id
     private String id;
     
+    @Indexed(unique = true)
     private String orderNumber;
     private String sellerId;
     private String buyerId;
     private String courierId;
+    private String pickupBatchId; // shared by orders collected in the same pickup run
     private Product product;
     private Shipping shipping;
     private OrderStatus status;
@@ -25,14 +41,20 @@ public class Order {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
     public Order() {
-        this.orderNumber = "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         this.status = OrderStatus.PENDING;
         this.timeline = new ArrayList<>();
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
 
+    // Bare instance for ReadConverter, which sets every field from the document
+    private Order(boolean bare) {
+    }
+
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -49,6 +71,9 @@ public class Order {
     public String getCourierId() { return courierId; }
     public void setCourierId(String courierId) { this.courierId = courierId; }
 
+    public String getPickupBatchId() { return pickupBatchId; }
+    public void setPickupBatchId(String pickupBatchId) { this.pickupBatchId = pickupBatchId; }
+
     public Product getProduct() { return product; }
     public void setProduct(Product product) { this.product = product; }
 
@@ -70,6 +95,9 @@ public class Order {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public static class Product {
         private String name;
         private String category;
@@ -114,7 +142,10 @@ public class Order {
         private Address from;
         private Address to;
         private String courierService;
+
+        @Indexed(unique = true, sparse = true)
         private String trackingNumber;
+
         private LocalDateTime estimatedDelivery;
 
         // Getters and Setters
@@ -149,6 +180,131 @@ public class Order {
         public double getTotal() { return total; }
         public void setTotal(double total) { this.total = total; }
     }
-}
 
+    /**
+     * Materialises an order directly from BSON, without the defaulting constructor or reflection.
+     */
+    @ReadingConverter
+    public static class ReadConverter implements Converter<org.bson.Document, Order> {
+
+        @Override
+        public Order convert(org.bson.Document source) {
+            Order order = new Order(true);
+            order.id = MongoDocuments.readId(source.get("_id"));
+            order.orderNumber = source.getString("orderNumber");
+            order.sellerId = source.getString("sellerId");
+            order.buyerId = source.getString("buyerId");
+            order.courierId = source.getString("courierId");
+            order.pickupBatchId = source.getString("pickupBatchId");
+            order.status = MongoDocuments.readEnum(OrderStatus.class, source.get("status"));
+            order.createdAt = MongoDocuments.readDateTime(source.get("createdAt"));
+            order.updatedAt = MongoDocuments.readDateTime(source.get("updatedAt"));
+            order.version = source.get("version") instanceof Number number ? number.longValue() : null;
+
+            if (source.get("product") instanceof org.bson.Document document) {
+                Product product = new Product();
+                product.name = document.getString("name");
+                product.category = document.getString("category");
+                product.weight = MongoDocuments.readDouble(document, "weight");
+                product.value = MongoDocuments.readDouble(document, "value");
+                if (document.get("dimensions") instanceof org.bson.Document size) {
+                    Dimensions dimensions = new Dimensions();
+                    dimensions.length = MongoDocuments.readDouble(size, "length");
+                    dimensions.width = MongoDocuments.readDouble(size, "width");
+                    dimensions.height = MongoDocuments.readDouble(size, "height");
+                    product.dimensions = dimensions;
+                }
+                order.product = product;
+            }
+
+            if (source.get("shipping") instanceof org.bson.Document document) {
+                Shipping shipping = new Shipping();
+                shipping.from = MongoDocuments.readAddress(document.get("from"));
+                shipping.to = MongoDocuments.readAddress(document.get("to"));
+                shipping.courierService = document.getString("courierService");
+                shipping.trackingNumber = document.getString("trackingNumber");
+                shipping.estimatedDelivery = MongoDocuments.readDateTime(document.get("estimatedDelivery"));
+                order.shipping = shipping;
+            }
+
+            if (source.get("pricing") instanceof org.bson.Document document) {
+                Pricing pricing = new Pricing();
+                pricing.productValue = MongoDocuments.readDouble(document, "productValue");
+                pricing.shippingCost = MongoDocuments.readDouble(document, "shippingCost");
+                pricing.total = MongoDocuments.readDouble(document, "total");
+                order.pricing = pricing;
+            }
+
+            List<Object> events = MongoDocuments.readList(source, "timeline");
+            order.timeline = new ArrayList<>(events.size());
+            for (Object event : events) {
+                if (event instanceof org.bson.Document document) {
+                    order.timeline.add(TrackingEvent.read(document));
+                }
+            }
+            return order;
+        }
+    }
 
+    @WritingConverter
+    public static class WriteConverter implements Converter<Order, org.bson.Document> {
+
+        @Override
+        public org.bson.Document convert(Order source) {
+            org.bson.Document document = new org.bson.Document();
+            if (source.id != null) {
+                document.put("_id", MongoDocuments.writeId(source.id));
+            }
+            document.put("_v", SCHEMA_VERSION);
+            MongoDocuments.put(document, "orderNumber", source.orderNumber);
+            MongoDocuments.put(document, "sellerId", source.sellerId);
+            MongoDocuments.put(document, "buyerId", source.buyerId);
+            MongoDocuments.put(document, "courierId", source.courierId);
+            MongoDocuments.put(document, "pickupBatchId", source.pickupBatchId);
+
+            if (source.product != null) {
+                org.bson.Document product = new org.bson.Document();
+                MongoDocuments.put(product, "name", source.product.name);
+                MongoDocuments.put(product, "category", source.product.category);
+                product.put("weight", source.product.weight);
+                if (source.product.dimensions != null) {
+                    product.put("dimensions", new org.bson.Document("length", source.product.dimensions.length)
+                            .append("width", source.product.dimensions.width)
+                            .append("height", source.product.dimensions.height));
+                }
+                product.put("value", source.product.value);
+                document.put("product", product);
+            }
+
+            if (source.shipping != null) {
+                org.bson.Document shipping = new org.bson.Document();
+                MongoDocuments.put(shipping, "from", MongoDocuments.writeAddress(source.shipping.from));
+                MongoDocuments.put(shipping, "to", MongoDocuments.writeAddress(source.shipping.to));
+                MongoDocuments.put(shipping, "courierService", source.shipping.courierService);
+                MongoDocuments.put(shipping, "trackingNumber", source.shipping.trackingNumber);
+                MongoDocuments.put(shipping, "estimatedDelivery", MongoDocuments.writeDateTime(source.shipping.estimatedDelivery));
+                document.put("shipping", shipping);
+            }
+
+            MongoDocuments.put(document, "status", source.status != null ? source.status.name() : null);
+            if (source.timeline != null) {
+                List<org.bson.Document> timeline = new ArrayList<>(source.timeline.size());
+                for (TrackingEvent event : source.timeline) {
+                    timeline.add(TrackingEvent.write(event));
+                }
+                document.put("timeline", timeline);
+            }
+
+            if (source.pricing != null) {
+                document.put("pricing", new org.bson.Document("productValue", source.pricing.productValue)
+                        .append("shippingCost", source.pricing.shippingCost)
+                        .append("total", source.pricing.total));
+            }
+
+            MongoDocuments.put(document, "createdAt", MongoDocuments.writeDateTime(source.createdAt));
+            MongoDocuments.put(document, "updatedAt", MongoDocuments.writeDateTime(source.updatedAt));
+            MongoDocuments.put(document, "version", source.version);
+            return document;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.logistics.model;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Materialised order totals for one seller, buyer or courier. Kept current with {@code $inc}
+ * as orders change status and recomputed from the orders collection by the rebuild job.
+ */
+@Document(collection = "order_counters")
+public class OrderCounter {
+    @Id
+    private String id; // <partyField>:<partyId>
+
+    private String partyField;
+    private String partyId;
+    private Map<String, Long> byStatus = new HashMap<>();
+    private double deliveredRevenue;
+    private Map<String, Long> deliveriesPerDay = new HashMap<>(); // keyed by ISO date
+    @Indexed
+    private LocalDateTime syncedAt; // created or last recomputed
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getPartyField() { return partyField; }
+    public void setPartyField(String partyField) { this.partyField = partyField; }
+
+    public String getPartyId() { return partyId; }
+    public void setPartyId(String partyId) { this.partyId = partyId; }
+
+    public Map<String, Long> getByStatus() { return byStatus; }
+    public void setByStatus(Map<String, Long> byStatus) { this.byStatus = byStatus; }
+
+    public double getDeliveredRevenue() { return deliveredRevenue; }
+    public void setDeliveredRevenue(double deliveredRevenue) { this.deliveredRevenue = deliveredRevenue; }
+
+    public Map<String, Long> getDeliveriesPerDay() { return deliveriesPerDay; }
+    public void setDeliveriesPerDay(Map<String, Long> deliveriesPerDay) { this.deliveriesPerDay = deliveriesPerDay; }
+
+    public LocalDateTime getSyncedAt() { return syncedAt; }
+    public void setSyncedAt(LocalDateTime syncedAt) { this.syncedAt = syncedAt; }
+}
@@ -1,9 +1,13 @@
 package com.logistics.model;
 
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "products")
@@ -33,6 +37,10 @@ public class Product {
         this.updatedAt = LocalDateTime.now();
     }
 
+    // Bare instance for ReadConverter, which sets fields without the setters' updatedAt side effect
+    private Product(boolean bare) {
+    }
+
     public Product(String name, String category, double weight, double value) {
         this();
         this.name = name;
@@ -309,4 +317,73 @@ public class Product {
         }
         return "Valid";
     }
+
+    /**
+     * Materialises a product directly from BSON, without the defaulting constructor, the
+     * timestamping setters or reflection.
+     */
+    @ReadingConverter
+    public static class ReadConverter implements Converter<org.bson.Document, Product> {
+
+        @Override
+        public Product convert(org.bson.Document source) {
+            Product product = new Product(true);
+            product.id = MongoDocuments.readId(source.get("_id"));
+            product.name = source.getString("name");
+            product.description = source.getString("description");
+            product.category = source.getString("category");
+            product.sku = source.getString("sku");
+            product.weight = MongoDocuments.readDouble(source, "weight");
+            if (source.get("dimensions") instanceof org.bson.Document size) {
+                product.dimensions = new Dimensions(MongoDocuments.readDouble(size, "length"),
+                        MongoDocuments.readDouble(size, "width"), MongoDocuments.readDouble(size, "height"));
+            }
+            product.value = MongoDocuments.readDouble(source, "value");
+            product.imageUrl = source.getString("imageUrl");
+            product.isActive = MongoDocuments.readBoolean(source, "isActive", true);
+            if (source.containsKey("tags")) {
+                List<Object> tags = MongoDocuments.readList(source, "tags");
+                product.tags = new ArrayList<>(tags.size());
+                for (Object tag : tags) {
+                    product.tags.add((String) tag);
+                }
+            }
+            product.sellerId = source.getString("sellerId");
+            product.status = MongoDocuments.readEnum(ProductStatus.class, source.get("status"));
+            product.createdAt = MongoDocuments.readDateTime(source.get("createdAt"));
+            product.updatedAt = MongoDocuments.readDateTime(source.get("updatedAt"));
+            return product;
+        }
+    }
+
+    @WritingConverter
+    public static class WriteConverter implements Converter<Product, org.bson.Document> {
+
+        @Override
+        public org.bson.Document convert(Product source) {
+            org.bson.Document document = new org.bson.Document();
+            if (source.id != null) {
+                document.put("_id", MongoDocuments.writeId(source.id));
+            }
+            MongoDocuments.put(document, "name", source.name);
+            MongoDocuments.put(document, "description", source.description);
+            MongoDocuments.put(document, "category", source.category);
+            MongoDocuments.put(document, "sku", source.sku);
+            document.put("weight", source.weight);
+            if (source.dimensions != null) {
+                document.put("dimensions", new org.bson.Document("length", source.dimensions.length)
+                        .append("width", source.dimensions.width)
+                        .append("height", source.dimensions.height));
+            }
+            document.put("value", source.value);
+            MongoDocuments.put(document, "imageUrl", source.imageUrl);
+            document.put("isActive", source.isActive);
+            MongoDocuments.put(document, "tags", source.tags);
+            MongoDocuments.put(document, "sellerId", source.sellerId);
+            MongoDocuments.put(document, "status", source.status != null ? source.status.name() : null);
+            MongoDocuments.put(document, "createdAt", MongoDocuments.writeDateTime(source.createdAt));
+            MongoDocuments.put(document, "updatedAt", MongoDocuments.writeDateTime(source.updatedAt));
+            return document;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.logistics.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+// Also embedded in users, so the unique index on name is created by RoleRegistry for this collection only
 @Document(collection = "roles")
 public class Role {
     @Id
@@ -2,6 +2,11 @@ package com.logistics.model;
 
 import java.time.LocalDateTime;
 
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
 public class TrackingEvent {
     private String status;
     private String description;
@@ -13,6 +18,9 @@ public class TrackingEvent {
         this.timestamp = LocalDateTime.now();
     }
 
+    private TrackingEvent(boolean bare) {
+    }
+
     public TrackingEvent(String status, String description, String location) {
         this();
         this.status = status;
@@ -35,4 +43,88 @@ public class TrackingEvent {
 
     public String getUpdatedBy() { return updatedBy; }
     public void setUpdatedBy(String updatedBy) { this.updatedBy = updatedBy; }
+
+    /*
+     * Stored form. v2 (written since schema version 2):
+     *   { s: status code, d: description, l: location, t: timestamp, u: updatedBy }
+     * where s is the OrderStatus name and d is left out when it is that status's default text.
+     * v1 used the long key names and, for status changes, the status description as the status.
+     * Events of both forms can sit in one timeline until the migrator rewrites the order.
+     */
+    static TrackingEvent read(Document document) {
+        TrackingEvent event = new TrackingEvent(true);
+        if (document.containsKey("s")) {
+            event.status = document.getString("s");
+            event.description = document.getString("d");
+            if (event.description == null) {
+                OrderStatus status = statusByCode(event.status);
+                event.description = status != null ? status.getDescription() : null;
+            }
+            event.location = document.getString("l");
+            event.timestamp = MongoDocuments.readDateTime(document.get("t"));
+            event.updatedBy = document.getString("u");
+        } else {
+            event.status = toCode(document.getString("status"));
+            event.description = document.getString("description");
+            event.location = document.getString("location");
+            event.timestamp = MongoDocuments.readDateTime(document.get("timestamp"));
+            event.updatedBy = document.getString("updatedBy");
+        }
+        return event;
+    }
+
+    static Document write(TrackingEvent event) {
+        String code = toCode(event.status);
+        OrderStatus status = statusByCode(code);
+        Document document = new Document();
+        MongoDocuments.put(document, "s", code);
+        if (status == null || !status.getDescription().equals(event.description)) {
+            MongoDocuments.put(document, "d", event.description);
+        }
+        MongoDocuments.put(document, "l", event.location);
+        MongoDocuments.put(document, "t", MongoDocuments.writeDateTime(event.timestamp));
+        MongoDocuments.put(document, "u", event.updatedBy);
+        return document;
+    }
+
+    // Maps a v1 status description back to its code; other values pass through
+    private static String toCode(String status) {
+        if (status == null || statusByCode(status) != null) {
+            return status;
+        }
+        for (OrderStatus candidate : OrderStatus.values()) {
+            if (candidate.getDescription().equals(status)) {
+                return candidate.name();
+            }
+        }
+        return status;
+    }
+
+    private static OrderStatus statusByCode(String code) {
+        for (OrderStatus candidate : OrderStatus.values()) {
+            if (candidate.name().equals(code)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Registered so that $push updates write events in the same compact form
+    @WritingConverter
+    public static class WriteConverter implements Converter<TrackingEvent, Document> {
+
+        @Override
+        public Document convert(TrackingEvent source) {
+            return write(source);
+        }
+    }
+
+    @ReadingConverter
+    public static class ReadConverter implements Converter<Document, TrackingEvent> {
+
+        @Override
+        public TrackingEvent convert(Document source) {
+            return read(source);
+        }
+    }
 }
@@ -1,13 +1,21 @@
 package com.logistics.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "users")
+@CompoundIndex(name = "role_active", def = "{'roles.name': 1, 'isActive': 1}")
 public class User {
     @Id
     private String id;
@@ -19,13 +27,24 @@ public class User {
     private Set<Role> roles;
     private Profile profile;
     private LocalDateTime createdAt;
+
+    @Indexed
     private boolean isActive;
 
+    private long tokenVersion;
+
+    @Indexed(sparse = true)
+    private LocalDateTime tokenVersionUpdatedAt;
+
     public User() {
         this.createdAt = LocalDateTime.now();
         this.isActive = true;
     }
 
+    // Bare instance for ReadConverter, which sets every field from the document
+    private User(boolean bare) {
+    }
+
     public User(String email, String password) {
         this();
         this.email = email;
@@ -52,7 +71,25 @@ public class User {
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public boolean isActive() { return isActive; }
-    public void setActive(boolean active) { isActive = active; }
+    public void setActive(boolean active) {
+        // Either way the change has to reach other nodes' revocation sets through tokenVersionUpdatedAt
+        if (active != isActive) {
+            revokeTokens();
+        }
+        isActive = active;
+    }
+
+    public long getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(long tokenVersion) { this.tokenVersion = tokenVersion; }
+
+    public LocalDateTime getTokenVersionUpdatedAt() { return tokenVersionUpdatedAt; }
+    public void setTokenVersionUpdatedAt(LocalDateTime tokenVersionUpdatedAt) { this.tokenVersionUpdatedAt = tokenVersionUpdatedAt; }
+
+    // Invalidates every token issued so far; setActive calls it, call it also after role or password changes
+    public void revokeTokens() {
+        this.tokenVersion++;
+        this.tokenVersionUpdatedAt = LocalDateTime.now();
+    }
 
     public static class Profile {
         private String name;
@@ -73,4 +110,87 @@ public class User {
         public String getCompany() { return company; }
         public void setCompany(String company) { this.company = company; }
     }
+
+    /**
+     * Materialises a user directly from BSON, without the defaulting constructor or reflection.
+     */
+    @ReadingConverter
+    public static class ReadConverter implements Converter<org.bson.Document, User> {
+
+        @Override
+        public User convert(org.bson.Document source) {
+            User user = new User(true);
+            user.id = MongoDocuments.readId(source.get("_id"));
+            user.email = source.getString("email");
+            user.password = source.getString("password");
+            user.createdAt = MongoDocuments.readDateTime(source.get("createdAt"));
+            user.isActive = MongoDocuments.readBoolean(source, "isActive", true);
+            user.tokenVersion = MongoDocuments.readLong(source, "tokenVersion");
+            user.tokenVersionUpdatedAt = MongoDocuments.readDateTime(source.get("tokenVersionUpdatedAt"));
+
+            if (source.containsKey("roles")) {
+                List<Object> roles = MongoDocuments.readList(source, "roles");
+                user.roles = new HashSet<>(roles.size() * 2);
+                for (Object value : roles) {
+                    if (value instanceof org.bson.Document document) {
+                        Role role = new Role(MongoDocuments.readEnum(ERole.class, document.get("name")));
+                        role.setId(MongoDocuments.readId(document.get("_id")));
+                        user.roles.add(role);
+                    }
+                }
+            }
+
+            if (source.get("profile") instanceof org.bson.Document document) {
+                Profile profile = new Profile();
+                profile.name = document.getString("name");
+                profile.phone = document.getString("phone");
+                profile.address = MongoDocuments.readAddress(document.get("address"));
+                profile.company = document.getString("company");
+                user.profile = profile;
+            }
+            return user;
+        }
+    }
+
+    @WritingConverter
+    public static class WriteConverter implements Converter<User, org.bson.Document> {
+
+        @Override
+        public org.bson.Document convert(User source) {
+            org.bson.Document document = new org.bson.Document();
+            if (source.id != null) {
+                document.put("_id", MongoDocuments.writeId(source.id));
+            }
+            MongoDocuments.put(document, "email", source.email);
+            MongoDocuments.put(document, "password", source.password);
+
+            if (source.roles != null) {
+                List<org.bson.Document> roles = new ArrayList<>(source.roles.size());
+                for (Role role : source.roles) {
+                    org.bson.Document entry = new org.bson.Document();
+                    if (role.getId() != null) {
+                        entry.put("_id", MongoDocuments.writeId(role.getId()));
+                    }
+                    MongoDocuments.put(entry, "name", role.getName() != null ? role.getName().name() : null);
+                    roles.add(entry);
+                }
+                document.put("roles", roles);
+            }
+
+            if (source.profile != null) {
+                org.bson.Document profile = new org.bson.Document();
+                MongoDocuments.put(profile, "name", source.profile.name);
+                MongoDocuments.put(profile, "phone", source.profile.phone);
+                MongoDocuments.put(profile, "address", MongoDocuments.writeAddress(source.profile.address));
+                MongoDocuments.put(profile, "company", source.profile.company);
+                document.put("profile", profile);
+            }
+
+            MongoDocuments.put(document, "createdAt", MongoDocuments.writeDateTime(source.createdAt));
+            document.put("isActive", source.isActive);
+            document.put("tokenVersion", source.tokenVersion);
+            MongoDocuments.put(document, "tokenVersionUpdatedAt", MongoDocuments.writeDateTime(source.tokenVersionUpdatedAt));
+            return document;
+        }
+    }
 }
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
     Optional<Order> findByOrderNumber(String orderNumber);
     Optional<Order> findByShippingTrackingNumber(String trackingNumber);
     List<Order> findBySellerId(String sellerId);
@@ -0,0 +1,114 @@
+package com.logistics.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.logistics.dto.OrderCursor;
+import com.logistics.dto.OrderStats;
+import com.logistics.dto.OrderSummary;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.TrackingEvent;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Keyset page of a party's order summaries, newest first, ordered by (createdAt, id) descending.
+     * Only the summary fields are projected out of each document.
+     *
+     * @param partyField One of sellerId, buyerId or courierId
+     * @param partyId    The user ID to match
+     * @param statuses   Statuses to include, or empty for all
+     * @param from       Inclusive lower bound on createdAt, or null
+     * @param to         Exclusive upper bound on createdAt, or null
+     * @param after      Position of the last order of the previous page, or null for the first page
+     * @param limit      Maximum number of orders to return
+     * @return Up to {@code limit} order summaries
+     */
+    List<OrderSummary> findSummaryPageByParty(String partyField, String partyId, Collection<OrderStatus> statuses,
+                                LocalDateTime from, LocalDateTime to, OrderCursor after, int limit);
+
+    /**
+     * Summaries of a party's orders whose pickup or delivery point lies within a radius.
+     *
+     * @param end        "from" for the pickup address or "to" for the delivery address
+     * @param latitude   Latitude of the centre
+     * @param longitude  Longitude of the centre
+     * @param radiusKm   Radius in kilometres
+     * @param partyField One of sellerId, buyerId or courierId
+     * @param partyId    The user ID to match
+     * @param statuses   Statuses to include, or empty for all
+     * @param limit      Maximum number of orders to return
+     * @return Up to {@code limit} order summaries, in no particular order
+     */
+    List<OrderSummary> findSummariesWithinRadius(String end, double latitude, double longitude, double radiusKm,
+                                                 String partyField, String partyId, Collection<OrderStatus> statuses,
+                                                 int limit);
+
+    /**
+     * Summaries of a party's orders whose pickup or delivery point lies inside a polygon, e.g. a delivery zone.
+     *
+     * @param end        "from" for the pickup address or "to" for the delivery address
+     * @param ring       The polygon's outer ring as [longitude, latitude] pairs
+     * @param partyField One of sellerId, buyerId or courierId
+     * @param partyId    The user ID to match
+     * @param statuses   Statuses to include, or empty for all
+     * @param limit      Maximum number of orders to return
+     * @return Up to {@code limit} order summaries, in no particular order
+     */
+    List<OrderSummary> findSummariesWithinPolygon(String end, List<double[]> ring, String partyField, String partyId,
+                                                  Collection<OrderStatus> statuses, int limit);
+
+    /**
+     * Confirmed orders awaiting pickup that are unassigned or assigned to the given courier,
+     * nearest pickup first.
+     *
+     * @param latitude      Latitude of the point
+     * @param longitude     Longitude of the point
+     * @param maxDistanceKm Search radius in kilometres
+     * @param courierId     The courier asking
+     * @param limit         Maximum number of orders to return
+     * @return Up to {@code limit} order summaries
+     */
+    List<OrderSummary> findNearestPickups(double latitude, double longitude, double maxDistanceKm, String courierId,
+                                          int limit);
+
+    /**
+     * Aggregates a party's orders by status in a single pipeline.
+     *
+     * @param partyField     One of sellerId, buyerId or courierId
+     * @param partyId        The user ID to match
+     * @param deliveredSince Start of the window counted as "delivered today"
+     * @return Per-status counts, delivered revenue and recent deliveries
+     */
+    OrderStats aggregateStatsByParty(String partyField, String partyId, LocalDateTime deliveredSince);
+
+    /**
+     * Sets the status and appends an event to the end of the timeline in one atomic update.
+     *
+     * @param orderId The order ID
+     * @param status  The new status
+     * @param event   The event to append; its timestamp becomes updatedAt
+     * @return The order as it was before the update, or null if it does not exist
+     */
+    Order updateStatusAndAppendEvent(String orderId, OrderStatus status, TrackingEvent event);
+
+    /**
+     * Replaces the estimated delivery time.
+     *
+     * @param orderId           The order ID
+     * @param estimatedDelivery The new estimate
+     * @return true if the order exists
+     */
+    boolean setEstimatedDelivery(String orderId, LocalDateTime estimatedDelivery);
+
+    /**
+     * Inserts an event at the head of the timeline in one atomic update.
+     *
+     * @param orderId The order ID
+     * @param event   The event to insert; its timestamp becomes updatedAt
+     * @return true if the order exists
+     */
+    boolean prependEvent(String orderId, TrackingEvent event);
+}
@@ -0,0 +1,247 @@
+package com.logistics.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.logistics.dto.OrderCursor;
+import com.logistics.dto.OrderStats;
+import com.logistics.dto.OrderSummary;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.TrackingEvent;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final String[] SUMMARY_FIELDS = {
+            "orderNumber", "status", "createdAt", "updatedAt",
+            "product.name", "pricing.total",
+            "shipping.trackingNumber", "shipping.courierService", "shipping.estimatedDelivery",
+            "shipping.from.city", "shipping.from.latitude", "shipping.from.longitude",
+            "shipping.to.city", "shipping.to.latitude", "shipping.to.longitude"
+    };
+
+    @Override
+    public List<OrderSummary> findSummaryPageByParty(String partyField, String partyId, Collection<OrderStatus> statuses,
+                                                     LocalDateTime from, LocalDateTime to, OrderCursor after, int limit) {
+        Query query = new Query(partyCriteria(partyField, partyId, statuses, from, to, after))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(limit);
+        return findSummaries(query, limit);
+    }
+
+    @Override
+    public List<OrderSummary> findSummariesWithinRadius(String end, double latitude, double longitude, double radiusKm,
+                                                        String partyField, String partyId, Collection<OrderStatus> statuses,
+                                                        int limit) {
+        // $centerSphere takes its radius in radians
+        Circle circle = new Circle(new Point(longitude, latitude), radiusKm / EARTH_RADIUS_KM);
+        Criteria criteria = partyCriteria(partyField, partyId, statuses, null, null, null)
+                .and(locationField(end)).withinSphere(circle);
+        return findSummaries(new Query(criteria).limit(limit), limit);
+    }
+
+    @Override
+    public List<OrderSummary> findSummariesWithinPolygon(String end, List<double[]> ring, String partyField, String partyId,
+                                                         Collection<OrderStatus> statuses, int limit) {
+        List<Point> points = new ArrayList<>(ring.size() + 1);
+        for (double[] point : ring) {
+            points.add(new Point(point[0], point[1]));
+        }
+        // GeoJSON rings are closed
+        if (!points.get(0).equals(points.get(points.size() - 1))) {
+            points.add(points.get(0));
+        }
+        Criteria criteria = partyCriteria(partyField, partyId, statuses, null, null, null)
+                .and(locationField(end)).within(new GeoJsonPolygon(points));
+        return findSummaries(new Query(criteria).limit(limit), limit);
+    }
+
+    @Override
+    public List<OrderSummary> findNearestPickups(double latitude, double longitude, double maxDistanceKm, String courierId,
+                                                 int limit) {
+        // $nearSphere sorts by distance itself and may not sit inside $and, so build one flat criteria
+        Criteria criteria = Criteria.where("shipping.from.location")
+                .nearSphere(new GeoJsonPoint(longitude, latitude)).maxDistance(maxDistanceKm * 1000.0)
+                .and("status").is(OrderStatus.CONFIRMED)
+                .and("courierId").in(null, courierId);
+        return findSummaries(new Query(criteria).limit(limit), limit);
+    }
+
+    // Read raw documents so no Order (and its timeline) is ever materialised
+    private List<OrderSummary> findSummaries(Query query, int limit) {
+        query.fields().include(SUMMARY_FIELDS);
+        List<OrderSummary> summaries = new ArrayList<>(limit);
+        for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Order.class))) {
+            summaries.add(toSummary(document));
+        }
+        return summaries;
+    }
+
+    // Served by the 2dsphere indexes declared on Order
+    private static String locationField(String end) {
+        return switch (end) {
+            case "from" -> "shipping.from.location";
+            case "to" -> "shipping.to.location";
+            default -> throw new IllegalArgumentException("Unknown address end: " + end);
+        };
+    }
+
+    @Override
+    public OrderStats aggregateStatsByParty(String partyField, String partyId, LocalDateTime deliveredSince) {
+        Date since = Date.from(deliveredSince.atZone(ZoneId.systemDefault()).toInstant());
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(partyField).is(partyId)),
+                Aggregation.group("status")
+                        .count().as("count")
+                        .sum("pricing.total").as("revenue")
+                        .sum(ConditionalOperators
+                                .when(ComparisonOperators.Gte.valueOf("updatedAt").greaterThanEqualToValue(since))
+                                .then(1).otherwise(0)).as("updatedSince"));
+
+        OrderStats stats = new OrderStats();
+        for (Document bucket : mongoTemplate.aggregate(aggregation, Order.class, Document.class)) {
+            String status = bucket.getString("_id");
+            if (status == null) {
+                continue;
+            }
+            OrderStatus orderStatus = OrderStatus.valueOf(status);
+            stats.add(orderStatus, ((Number) bucket.get("count")).longValue());
+            if (orderStatus == OrderStatus.DELIVERED) {
+                Double revenue = toDouble(bucket.get("revenue"));
+                stats.setDeliveredRevenue(revenue != null ? revenue : 0.0);
+                stats.setDeliveredToday(((Number) bucket.get("updatedSince")).longValue());
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public Order updateStatusAndAppendEvent(String orderId, OrderStatus status, TrackingEvent event) {
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedAt", event.getTimestamp())
+                .push("timeline", event)
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(byId(orderId), update, FindAndModifyOptions.options().returnNew(false), Order.class);
+    }
+
+    @Override
+    public boolean setEstimatedDelivery(String orderId, LocalDateTime estimatedDelivery) {
+        Update update = new Update()
+                .set("shipping.estimatedDelivery", estimatedDelivery)
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(byId(orderId), update, Order.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean prependEvent(String orderId, TrackingEvent event) {
+        Update update = new Update()
+                .set("updatedAt", event.getTimestamp())
+                .inc("version", 1);
+        update.push("timeline").atPosition(0).value(event);
+        return mongoTemplate.updateFirst(byId(orderId), update, Order.class).getMatchedCount() > 0;
+    }
+
+    private static Query byId(String orderId) {
+        return Query.query(Criteria.where("_id").is(orderId));
+    }
+
+    static OrderSummary toSummary(Document document) {
+        OrderSummary summary = new OrderSummary();
+        summary.setId(String.valueOf(document.get("_id")));
+        summary.setOrderNumber(document.getString("orderNumber"));
+        String status = document.getString("status");
+        summary.setStatus(status != null ? OrderStatus.valueOf(status) : null);
+        summary.setCreatedAt(toLocalDateTime(document.get("createdAt")));
+        summary.setUpdatedAt(toLocalDateTime(document.get("updatedAt")));
+
+        Document product = document.get("product", Document.class);
+        if (product != null) {
+            summary.setProductName(product.getString("name"));
+        }
+        Document pricing = document.get("pricing", Document.class);
+        if (pricing != null && pricing.get("total") instanceof Number total) {
+            summary.setTotal(total.doubleValue());
+        }
+
+        Document shipping = document.get("shipping", Document.class);
+        if (shipping != null) {
+            summary.setTrackingNumber(shipping.getString("trackingNumber"));
+            summary.setCourierService(shipping.getString("courierService"));
+            summary.setEstimatedDelivery(toLocalDateTime(shipping.get("estimatedDelivery")));
+
+            Document origin = shipping.get("from", Document.class);
+            if (origin != null) {
+                summary.setOriginCity(origin.getString("city"));
+                summary.setOriginLatitude(toDouble(origin.get("latitude")));
+                summary.setOriginLongitude(toDouble(origin.get("longitude")));
+            }
+            Document destination = shipping.get("to", Document.class);
+            if (destination != null) {
+                summary.setDestinationCity(destination.getString("city"));
+                summary.setDestinationLatitude(toDouble(destination.get("latitude")));
+                summary.setDestinationLongitude(toDouble(destination.get("longitude")));
+            }
+        }
+        return summary;
+    }
+
+    // Matches MappingMongoConverter, which stores LocalDateTime in the system default zone
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Date date ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    private static Double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    // Served by the {party: 1, createdAt: -1, _id: -1} compound indexes declared on Order
+    static Criteria partyCriteria(String partyField, String partyId, Collection<OrderStatus> statuses,
+                                  LocalDateTime from, LocalDateTime to, OrderCursor after) {
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(Criteria.where(partyField).is(partyId));
+        if (statuses != null && !statuses.isEmpty()) {
+            clauses.add(Criteria.where("status").in(statuses));
+        }
+        if (from != null) {
+            clauses.add(Criteria.where("createdAt").gte(from));
+        }
+        if (to != null) {
+            clauses.add(Criteria.where("createdAt").lt(to));
+        }
+        if (after != null) {
+            clauses.add(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(after.getCreatedAt()),
+                    new Criteria().andOperator(
+                            Criteria.where("createdAt").is(after.getCreatedAt()),
+                            Criteria.where("_id").lt(after.getId()))));
+        }
+        return new Criteria().andOperator(clauses);
+    }
+}
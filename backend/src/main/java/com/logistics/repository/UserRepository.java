@@ -1,8 +1,11 @@
 package com.logistics.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.logistics.model.User;
@@ -11,4 +14,11 @@ import com.logistics.model.User;
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
+
+    // Only id and email are loaded
+    @Query(value = "{ 'email': { $in: ?0 } }", fields = "{ 'email': 1 }")
+    List<User> findIdAndEmailByEmailIn(Collection<String> emails);
+
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'email': 1 }")
+    List<User> findIdAndEmailByIdIn(Collection<String> ids);
 }
@@ -5,6 +5,7 @@ import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -28,6 +29,15 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${app.jwtStatelessAuth:true}")
+    private boolean statelessAuth;
+
     private static final Logger jwtLogger = LoggerFactory.getLogger(JwtAuthTokenFilter.class);
 
     @Override
@@ -40,10 +50,10 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
 
         if (jwt != null) {
             try {
-                if (jwtUtils.validateJwtToken(jwt)) {
-                    String email = jwtUtils.getEmailFromJwtToken(jwt);
+                JwtClaims claims = jwtUtils.verify(jwt);
+                UserDetails userDetails = claims != null ? resolvePrincipal(claims) : null;
 
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -64,6 +74,22 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Stateless tokens carry id, roles and account version; older tokens fall back to the cached lookup
+    private UserPrincipal resolvePrincipal(JwtClaims claims) {
+        if (!statelessAuth || !claims.isSelfContained()) {
+            return principalCache.get(claims.getSubject(),
+                    subject -> (UserPrincipal) userDetailsService.loadUserByUsername(subject));
+        }
+
+        if (tokenRevocationService.isRevoked(claims.getUserId(), claims.getTokenVersion())) {
+            jwtLogger.warn("Revoked JWT token presented for user {}", claims.getUserId());
+            return null;
+        }
+
+        return UserPrincipal.fromClaims(claims.getUserId(), claims.getSubject(),
+                claims.getName(), claims.getRoles(), claims.getTokenVersion());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,42 @@
+package com.logistics.security;
+
+import java.util.List;
+
+/**
+ * Verified claims of an access token, extracted once per request by {@link JwtUtils#verify(String)}.
+ */
+public final class JwtClaims {
+    private final String subject;
+    private final String userId;
+    private final String name;
+    private final List<String> roles;
+    private final long tokenVersion;
+    private final long expiresAt;
+
+    public JwtClaims(String subject, String userId, String name, List<String> roles,
+                     long tokenVersion, long expiresAt) {
+        this.subject = subject;
+        this.userId = userId;
+        this.name = name;
+        this.roles = roles;
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() { return subject; }
+
+    public String getUserId() { return userId; }
+
+    public String getName() { return name; }
+
+    public List<String> getRoles() { return roles; }
+
+    public long getTokenVersion() { return tokenVersion; }
+
+    public long getExpiresAt() { return expiresAt; }
+
+    // Tokens issued before claims were embedded only carry the subject
+    public boolean isSelfContained() {
+        return userId != null;
+    }
+}
@@ -2,65 +2,166 @@ package com.logistics.security;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_NAME = "name";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_VERSION = "ver";
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
 
+    @Value("${app.jwtKeyId:primary}")
+    private String jwtKeyId;
+
+    // Retired secrets still accepted for verification, as "kid:base64secret" pairs separated by commas
+    @Value("${app.jwtVerificationKeys:}")
+    private String jwtVerificationKeys;
+
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    private Key signingKey;
+    private Map<String, Key> verificationKeys;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = decodeKey(jwtSecret);
+
+        Map<String, Key> keys = new HashMap<>();
+        if (StringUtils.hasText(jwtVerificationKeys)) {
+            for (String entry : jwtVerificationKeys.split(",")) {
+                int sep = entry.indexOf(':');
+                if (sep <= 0) {
+                    throw new IllegalStateException("Invalid app.jwtVerificationKeys entry: expected kid:secret");
+                }
+                keys.put(entry.substring(0, sep).trim(), decodeKey(entry.substring(sep + 1).trim()));
+            }
+        }
+        keys.put(jwtKeyId, signingKey);
+        verificationKeys = Map.copyOf(keys);
+
+        // JwtParser is immutable and thread-safe, so one instance serves every request
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    // jjwt 0.11 declares this with a raw JwsHeader, so the override has to match it
+                    @Override
+                    @SuppressWarnings("rawtypes")
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        JwsHeader<?> jwsHeader = header;
+                        return resolveKey(jwsHeader.getKeyId());
+                    }
+                })
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(authority -> authority.getAuthority())
+                .collect(Collectors.toList());
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyId)
                 .setSubject((userPrincipal.getEmail()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_NAME, userPrincipal.getName())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_VERSION, userPrincipal.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
+    /**
+     * Parses and verifies a token in a single pass.
+     *
+     * @param token The compact JWS
+     * @return The verified claims, or null if the token is invalid, expired or signed with an unknown key
+     */
+    public JwtClaims verify(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
 
-    public String getEmailFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
-    }
+            @SuppressWarnings("unchecked")
+            List<String> roles = claims.get(CLAIM_ROLES, List.class);
+            Number version = claims.get(CLAIM_VERSION, Number.class);
+            Date expiration = claims.getExpiration();
 
-    public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            return new JwtClaims(
+                    claims.getSubject(),
+                    claims.get(CLAIM_USER_ID, String.class),
+                    claims.get(CLAIM_NAME, String.class),
+                    roles,
+                    version != null ? version.longValue() : 0L,
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token verification failed: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getEmailFromJwtToken(String token) {
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return verify(authToken) != null;
     }
-}
 
+    // Tokens minted before key ids were introduced carry no kid and were signed with the primary secret
+    private Key resolveKey(String keyId) {
+        if (keyId == null) {
+            return signingKey;
+        }
+        Key key = verificationKeys.get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + keyId);
+        }
+        return key;
+    }
+
+    private static Key decodeKey(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
@@ -0,0 +1,159 @@
+package com.logistics.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by the token subject (email).
+ * Lets {@link JwtAuthTokenFilter} skip the users collection for repeat requests; entries are
+ * dropped when the underlying {@code User} document changes.
+ *
+ * <p>Invalidation is local: it follows saves and deletes made through this instance. Changes
+ * made by another instance or directly in the database are seen here within
+ * {@code app.principalCacheTtlMs}, so that is the bound on how stale roles or the active flag
+ * can be across nodes.
+ */
+@Component
+public class PrincipalCache {
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    @Value("${app.principalCacheTtlMs:60000}")
+    private long ttlMs;
+
+    @Value("${app.principalCacheMaxSize:10000}")
+    private int maxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    // Bumped by every invalidation, so a load that overlapped one does not cache what it read
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("auth.principal.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.evictions", expirations, LongAdder::sum)
+                .tag("cause", "expired").register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.evictions", sizeEvictions, LongAdder::sum)
+                .tag("cause", "size").register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached principal for the subject, loading it through {@code loader} on a miss.
+     *
+     * @param subject The token subject (user email)
+     * @param loader  Loads the principal from the database on a miss
+     * @return The principal
+     */
+    public UserPrincipal get(String subject, Function<String, UserPrincipal> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(subject);
+        if (entry != null) {
+            if (entry.expiresAt > now) {
+                hits.increment();
+                return entry.principal;
+            }
+            if (entries.remove(subject, entry)) {
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        long loadedAt = generation.get();
+        UserPrincipal principal = loader.apply(subject);
+        Entry loaded = new Entry(principal, now + ttlMs);
+        entries.put(subject, loaded);
+        // An invalidation that started after the load may predate what was read; drop our entry
+        if (generation.get() != loadedAt) {
+            entries.remove(subject, loaded);
+            return principal;
+        }
+        if (entries.size() > maxSize) {
+            shrink(now);
+        }
+        return principal;
+    }
+
+    public void invalidate(String subject) {
+        if (subject != null) {
+            generation.incrementAndGet();
+            entries.remove(subject);
+        }
+    }
+
+    public void invalidateUserId(String userId) {
+        if (userId != null) {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> userId.equals(entry.principal.getId()));
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    // Drop expired entries first, then arbitrary ones down to 90% of capacity so the sweep is amortised
+    private void shrink(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAt <= now) {
+                    it.remove();
+                    expirations.increment();
+                }
+            }
+
+            int target = (int) (maxSize * 0.9);
+            it = entries.values().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                sizeEvictions.increment();
+            }
+            logger.debug("Principal cache shrunk to {} entries", entries.size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static final class Entry {
+        final UserPrincipal principal;
+        final long expiresAt;
+
+        Entry(UserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.logistics.security;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.config.RateLimitProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-client, per-route rate limiting for the unauthenticated endpoints.
+ *
+ * Each bucket is a single {@link AtomicLong} holding its theoretical arrival time (the GCRA form of
+ * a token bucket), so admitting a request is one CAS with no locks. Buckets live in a concurrent map
+ * bounded by {@code maxBuckets}; idle buckets are full by definition and are evicted periodically.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> overflowBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new HashMap<>();
+    private List<Limit> limits = List.of();
+
+    @PostConstruct
+    void init() {
+        List<Limit> compiled = new ArrayList<>();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if (route.getCapacity() <= 0 || route.getRefillPerSecond() <= 0) {
+                throw new IllegalStateException("Rate limit route " + route.getName() + " needs a positive capacity and refill rate");
+            }
+            compiled.add(new Limit(route));
+            rejections.put(route.getName(), Counter.builder("http.ratelimit.rejected")
+                    .tag("route", route.getName())
+                    .register(meterRegistry));
+        }
+        limits = List.copyOf(compiled);
+        Gauge.builder("http.ratelimit.buckets", buckets, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || limits.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Limit limit = match(request.getServletPath());
+        if (limit != null) {
+            long waitNanos = limit.acquire(bucketFor(limit, clientIp(request)), System.nanoTime());
+            if (waitNanos > 0) {
+                rejections.get(limit.name).increment();
+                reject(request, response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.idle-eviction-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictionMs());
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() < cutoff);
+        if (before != buckets.size()) {
+            logger.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+        }
+    }
+
+    private Limit match(String path) {
+        for (Limit limit : limits) {
+            if (pathMatcher.match(limit.pattern, path)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    // Once the map is full, unseen clients share one bucket per route rather than growing memory
+    private AtomicLong bucketFor(Limit limit, String clientIp) {
+        String key = limit.name + '|' + clientIp;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.getMaxBuckets()) {
+            return overflowBuckets.computeIfAbsent(limit.name, name -> new AtomicLong(Long.MIN_VALUE));
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwarded)) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+
+        response.setStatus(429);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", 429);
+        body.put("error", "Too Many Requests");
+        body.put("message", "Rate limit exceeded, retry after " + retryAfterSeconds + "s");
+        body.put("path", request.getServletPath());
+        mapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static final class Limit {
+        final String name;
+        final String pattern;
+        final long emissionIntervalNanos;
+        final long burstNanos;
+
+        Limit(RateLimitProperties.Route route) {
+            this.name = route.getName();
+            this.pattern = route.getPattern();
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / route.getRefillPerSecond());
+            this.burstNanos = emissionIntervalNanos * route.getCapacity();
+        }
+
+        /**
+         * Takes one token from the bucket.
+         *
+         * @return 0 if admitted, otherwise the nanoseconds until a token becomes available
+         */
+        long acquire(AtomicLong bucket, long now) {
+            while (true) {
+                long tat = bucket.get();
+                long newTat = Math.max(tat, now) + emissionIntervalNanos;
+                long excess = newTat - now - burstNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (bucket.compareAndSet(tat, newTat)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.logistics.security;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.logistics.model.User;
+
+/**
+ * In-memory revocation set for stateless tokens. Holds only users whose tokens were revoked
+ * within the token lifetime (or who are deactivated), and is refreshed incrementally from the
+ * users collection using {@code tokenVersionUpdatedAt} as a high-water mark. Deactivating or
+ * reactivating a user through {@link User#setActive(boolean)} bumps that timestamp, so the change
+ * reaches every node within {@code app.tokenRevocationRefreshMs}.
+ *
+ * <p>The timestamp comes from the writing node's clock and is set before the save commits, so a
+ * revocation can become visible after a later one was already seen. Each refresh therefore
+ * re-reads from one refresh interval plus {@code app.tokenRevocationClockSkewMs} before the
+ * high-water mark; re-applying a user already seen is harmless.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Deactivated users reject every token version
+    private static final long ALL_VERSIONS = Long.MAX_VALUE;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.jwtExpirationMs}")
+    private long jwtExpirationMs;
+
+    @Value("${app.tokenRevocationRefreshMs:30000}")
+    private long refreshMs;
+
+    @Value("${app.tokenRevocationClockSkewMs:5000}")
+    private long clockSkewMs;
+
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+    private volatile LocalDateTime highWaterMark = LocalDateTime.now();
+
+    /**
+     * Whether a token carrying the given version has been revoked for the user.
+     *
+     * @param userId       The user ID from the token
+     * @param tokenVersion The account version the token was issued with
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(String userId, long tokenVersion) {
+        Revocation revocation = revocations.get(userId);
+        return revocation != null && tokenVersion < revocation.minVersion;
+    }
+
+    /**
+     * Applies a user change seen on this node immediately, ahead of the next refresh.
+     *
+     * @param user The saved user
+     */
+    public void record(User user) {
+        if (user.getId() == null) {
+            return;
+        }
+        if (!user.isActive()) {
+            revocations.put(user.getId(), new Revocation(ALL_VERSIONS, System.currentTimeMillis()));
+        } else if (user.getTokenVersion() > 0 && user.getTokenVersionUpdatedAt() != null) {
+            revocations.put(user.getId(), new Revocation(user.getTokenVersion(), toEpochMillis(user.getTokenVersionUpdatedAt())));
+        } else {
+            revocations.remove(user.getId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInitial() {
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("isActive").is(false),
+                Criteria.where("tokenVersionUpdatedAt").gte(LocalDateTime.now().minus(Duration.ofMillis(jwtExpirationMs)))));
+        apply(query);
+        logger.info("Loaded {} token revocations", revocations.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.tokenRevocationRefreshMs:30000}",
+               initialDelayString = "${app.tokenRevocationRefreshMs:30000}")
+    public void refresh() {
+        LocalDateTime since = highWaterMark.minus(Duration.ofMillis(refreshMs + clockSkewMs));
+        apply(new Query(Criteria.where("tokenVersionUpdatedAt").gte(since)));
+        prune();
+    }
+
+    private void apply(Query query) {
+        query.fields().include("isActive", "tokenVersion", "tokenVersionUpdatedAt");
+        for (User user : mongoTemplate.find(query, User.class)) {
+            record(user);
+            LocalDateTime updatedAt = user.getTokenVersionUpdatedAt();
+            if (updatedAt != null && updatedAt.isAfter(highWaterMark)) {
+                highWaterMark = updatedAt;
+            }
+        }
+    }
+
+    // Once the token lifetime has passed since a bump, no older token can still be valid
+    private void prune() {
+        long cutoff = System.currentTimeMillis() - jwtExpirationMs;
+        revocations.values().removeIf(r -> r.minVersion != ALL_VERSIONS && r.changedAt < cutoff);
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Revocation {
+        final long minVersion;
+        final long changedAt;
+
+        Revocation(long minVersion, long changedAt) {
+            this.minVersion = minVersion;
+            this.changedAt = changedAt;
+        }
+    }
+}
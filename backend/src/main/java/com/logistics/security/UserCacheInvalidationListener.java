@@ -0,0 +1,46 @@
+package com.logistics.security;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.logistics.model.User;
+
+/**
+ * Evicts cached principals and updates the local revocation set whenever a {@link User}
+ * document is saved or deleted, so deactivation and role changes take effect on the next request.
+ */
+@Component
+public class UserCacheInvalidationListener extends AbstractMongoEventListener<User> {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Override
+    public void onAfterSave(@NonNull AfterSaveEvent<User> event) {
+        User user = event.getSource();
+        principalCache.invalidate(user.getEmail());
+        // The email itself may have changed, so also drop any entry held under the old subject
+        principalCache.invalidateUserId(user.getId());
+        tokenRevocationService.record(user);
+    }
+
+    @Override
+    public void onAfterDelete(@NonNull AfterDeleteEvent<User> event) {
+        Document query = event.getSource();
+        Object id = query.get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            principalCache.invalidateUserId(id.toString());
+        } else {
+            principalCache.invalidateAll();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.logistics.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,24 +14,33 @@ import com.logistics.model.User;
 import com.logistics.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
+
     @Autowired
     UserRepository userRepository;
 
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        System.out.println("DEBUG: Looking for user: " + email); // Debug line
-        
         User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    System.out.println("DEBUG: User not found: " + email); // Debug line
-                    return new UsernameNotFoundException("User Not Found with email: " + email);
-                });
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + email));
+
+        logger.debug("Loaded user {}, active: {}", user.getEmail(), user.isActive());
 
-        System.out.println("DEBUG: Found user: " + user.getEmail() + ", active: " + user.isActive()); // Debug line
-        
         return UserPrincipal.build(user); // Fixed spelling: UserPrincipal (not UserPrincipal)
     }
-}
 
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + userDetails.getUsername()));
+
+        // Same password under a stronger hash, so tokens already issued stay valid
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        logger.debug("Upgraded password hash for user {}", user.getEmail());
+
+        return UserPrincipal.build(user);
+    }
+}
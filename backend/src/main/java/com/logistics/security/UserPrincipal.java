@@ -22,13 +22,21 @@ public class UserPrincipal implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private long tokenVersion;
+
     public UserPrincipal(String id, String email, String name, String password,
                         Collection<? extends GrantedAuthority> authorities) {
+        this(id, email, name, password, authorities, 0L);
+    }
+
+    public UserPrincipal(String id, String email, String name, String password,
+                        Collection<? extends GrantedAuthority> authorities, long tokenVersion) {
         this.id = id;
         this.email = email;
         this.name = name;
         this.password = password;
         this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
     }
 
     public static UserPrincipal build(User user) {
@@ -59,9 +67,20 @@ public class UserPrincipal implements UserDetails {
             user.getEmail(),
             user.getProfile() != null ? user.getProfile().getName() : user.getEmail(),
             user.getPassword(),
-            authorities);
+            authorities,
+            user.getTokenVersion());
 }
 
+    // Builds a principal from verified token claims, without touching the database
+    public static UserPrincipal fromClaims(String id, String email, String name,
+                                           List<String> roles, long tokenVersion) {
+        List<GrantedAuthority> authorities = roles == null || roles.isEmpty()
+                ? List.of(new SimpleGrantedAuthority("ROLE_USER"))
+                : roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+
+        return new UserPrincipal(id, email, name != null ? name : email, null, authorities, tokenVersion);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -79,6 +98,10 @@ public class UserPrincipal implements UserDetails {
         return name;
     }
 
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
@@ -21,9 +21,9 @@ import com.logistics.dto.SignupRequest;
 import com.logistics.model.ERole;
 import com.logistics.model.Role;
 import com.logistics.model.User;
-import com.logistics.repository.RoleRepository;
 import com.logistics.repository.UserRepository;
 import com.logistics.security.JwtUtils;
+import com.logistics.security.PasswordHashingExecutor;
 import com.logistics.security.UserPrincipal;
 
 @Service
@@ -36,7 +36,7 @@ public class AuthService {
     UserRepository userRepository;
 
     @Autowired
-    RoleRepository roleRepository;
+    RoleRegistry roleRegistry;
 
     @Autowired
     PasswordEncoder encoder;
@@ -44,9 +44,14 @@ public class AuthService {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    PasswordHashingExecutor passwordHashingExecutor;
+
     public ResponseEntity<?> authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        // BCrypt verification (and any hash upgrade) runs on the dedicated hashing pool; when it is
+        // saturated the PasswordHashingBusyException reaches AuthController's 503 handler
+        Authentication authentication = passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
@@ -70,34 +75,27 @@ public class AuthService {
                     .body(new MessageResponse("Error: Email is already in use!"));
         }
 
+        String passwordHash = passwordHashingExecutor.execute(() -> encoder.encode(signUpRequest.getPassword()));
+
         // Create new user account
-        User user = new User(signUpRequest.getEmail(),
-                encoder.encode(signUpRequest.getPassword()));
+        User user = new User(signUpRequest.getEmail(), passwordHash);
 
         Set<String> strRoles = signUpRequest.getRole();
         Set<Role> roles = new HashSet<>();
 
         if (strRoles == null) {
-            Role userRole = roleRepository.findByName(ERole.ROLE_BUYER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-            roles.add(userRole);
+            roles.add(roleRegistry.get(ERole.ROLE_BUYER));
         } else {
             strRoles.forEach(role -> {
                 switch (role) {
                     case "seller":
-                        Role sellerRole = roleRepository.findByName(ERole.ROLE_SELLER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(sellerRole);
+                        roles.add(roleRegistry.get(ERole.ROLE_SELLER));
                         break;
                     case "courier":
-                        Role courierRole = roleRepository.findByName(ERole.ROLE_COURIER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(courierRole);
+                        roles.add(roleRegistry.get(ERole.ROLE_COURIER));
                         break;
                     default:
-                        Role buyerRole = roleRepository.findByName(ERole.ROLE_BUYER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(buyerRole);
+                        roles.add(roleRegistry.get(ERole.ROLE_BUYER));
                 }
             });
         }
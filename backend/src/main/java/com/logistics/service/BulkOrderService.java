@@ -0,0 +1,314 @@
+package com.logistics.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.dto.BulkRowResult;
+import com.logistics.dto.OrderRequest;
+import com.logistics.model.Address;
+import com.logistics.model.Order;
+import com.logistics.model.User;
+import com.logistics.repository.UserRepository;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Creates orders from an NDJSON or CSV stream. Rows are read, validated and inserted one chunk
+ * at a time and each row's result is written back as soon as its chunk is done, so memory use
+ * depends on the chunk size rather than the size of the upload.
+ */
+@Service
+public class BulkOrderService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkOrderService.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.bulkOrderChunkSize:500}")
+    private int chunkSize;
+
+    /**
+     * Imports every row of the input for one seller.
+     *
+     * @param reader   The request body
+     * @param csv      true for CSV with a header row, false for one JSON order per line
+     * @param sellerId The seller creating the orders
+     * @param out      Receives one NDJSON result per row, in row order
+     */
+    public void importOrders(BufferedReader reader, boolean csv, String sellerId, Writer out) throws IOException {
+        long started = System.currentTimeMillis();
+        List<String> header = null;
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long row = 0;
+        long created = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && header == null) {
+                header = parseCsvLine(line);
+                continue;
+            }
+
+            row++;
+            try {
+                OrderRequest request = csv ? fromCsv(header, parseCsvLine(line)) : objectMapper.readValue(line, OrderRequest.class);
+                String violations = validate(request);
+                chunk.add(violations == null ? new PendingRow(row, request) : new PendingRow(row, violations));
+            } catch (JsonProcessingException e) {
+                chunk.add(new PendingRow(row, "Malformed JSON: " + e.getOriginalMessage()));
+            } catch (IllegalArgumentException e) {
+                chunk.add(new PendingRow(row, e.getMessage()));
+            }
+
+            if (chunk.size() == chunkSize) {
+                created += processChunk(chunk, sellerId, out);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += processChunk(chunk, sellerId, out);
+        }
+
+        logger.info("Bulk import for seller {}: {} of {} rows created in {} ms",
+                sellerId, created, row, System.currentTimeMillis() - started);
+    }
+
+    private long processChunk(List<PendingRow> chunk, String sellerId, Writer out) throws IOException {
+        // One $in lookup resolves every buyer in the chunk
+        Set<String> emails = new HashSet<>();
+        for (PendingRow pending : chunk) {
+            if (pending.request != null) {
+                emails.add(pending.request.getBuyerEmail());
+            }
+        }
+        Map<String, User> buyers = emails.isEmpty() ? Map.of() : userRepository.findIdAndEmailByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, user -> user, (a, b) -> a));
+
+        List<Order> orders = new ArrayList<>();
+        List<PendingRow> inserted = new ArrayList<>();
+        for (PendingRow pending : chunk) {
+            if (pending.request == null) {
+                continue;
+            }
+            Order order;
+            try {
+                order = orderService.buildOrder(pending.request, sellerId);
+            } catch (RuntimeException e) {
+                // A row the pricing or geocoding rejects fails alone instead of aborting the upload
+                logger.debug("Bulk import row {} could not be built", pending.row, e);
+                pending.error = "Could not create order: " + e.getMessage();
+                continue;
+            }
+            order.setId(new ObjectId().toHexString());
+            order.setVersion(0L);
+            User buyer = buyers.get(pending.request.getBuyerEmail());
+            if (buyer != null) {
+                order.setBuyerId(buyer.getId());
+            }
+            pending.order = order;
+            orders.add(order);
+            inserted.add(pending);
+        }
+
+        if (!orders.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class).insert(orders).execute();
+            } catch (BulkOperationException e) {
+                // Unordered, so everything but the reported inserts went through
+                for (BulkWriteError error : e.getErrors()) {
+                    PendingRow failed = inserted.get(error.getIndex());
+                    failed.error = "Insert failed: " + error.getMessage();
+                    failed.order = null;
+                }
+            }
+        }
+
+        List<Order> created = new ArrayList<>(orders.size());
+        List<EmailService.Notification> notifications = new ArrayList<>();
+        for (PendingRow pending : chunk) {
+            BulkRowResult result;
+            if (pending.order != null) {
+                created.add(pending.order);
+                User buyer = buyers.get(pending.request.getBuyerEmail());
+                if (buyer != null) {
+                    notifications.add(new EmailService.Notification(buyer.getEmail(), pending.order));
+                }
+                result = BulkRowResult.succeeded(pending.row, pending.order.getId(),
+                        pending.order.getShipping().getTrackingNumber());
+            } else {
+                result = BulkRowResult.failed(pending.row, pending.error);
+            }
+            out.write(objectMapper.writeValueAsString(result));
+            out.write('\n');
+        }
+        out.flush();
+
+        orderStatsService.recordCreated(created);
+        emailService.sendOrderConfirmationEmails(notifications);
+        return created.size();
+    }
+
+    private String validate(OrderRequest request) {
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // Columns are matched by header name; addresses use fromCity, toPostalCode and so on
+    private static OrderRequest fromCsv(List<String> header, List<String> values) {
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = values.get(i).trim();
+            row.put(header.get(i).trim(), value.isEmpty() ? null : value);
+        }
+
+        OrderRequest request = new OrderRequest();
+        request.setProductName(row.get("productName"));
+        request.setProductCategory(row.get("productCategory"));
+        request.setWeight(parseDouble(row, "weight"));
+        request.setProductValue(parseDouble(row, "productValue"));
+        request.setCourierService(row.get("courierService"));
+        request.setBuyerEmail(row.get("buyerEmail"));
+        request.setFromAddress(addressFromCsv(row, "from"));
+        request.setToAddress(addressFromCsv(row, "to"));
+
+        Double length = parseDouble(row, "length");
+        Double width = parseDouble(row, "width");
+        Double height = parseDouble(row, "height");
+        if (length != null && width != null && height != null) {
+            Order.Dimensions dimensions = new Order.Dimensions();
+            dimensions.setLength(length);
+            dimensions.setWidth(width);
+            dimensions.setHeight(height);
+            request.setDimensions(dimensions);
+        }
+        return request;
+    }
+
+    private static Address addressFromCsv(Map<String, String> row, String prefix) {
+        Address address = new Address();
+        address.setStreet(row.get(prefix + "Street"));
+        address.setCity(row.get(prefix + "City"));
+        address.setState(row.get(prefix + "State"));
+        address.setPostalCode(row.get(prefix + "PostalCode"));
+        address.setCountry(row.get(prefix + "Country"));
+        Double latitude = parseDouble(row, prefix + "Latitude");
+        Double longitude = parseDouble(row, prefix + "Longitude");
+        address.setLatitude(latitude != null ? latitude : 0.0);
+        address.setLongitude(longitude != null ? longitude : 0.0);
+        return address;
+    }
+
+    private static Double parseDouble(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + column + ": " + value);
+        }
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class PendingRow {
+        final long row;
+        final OrderRequest request;
+        String error;
+        Order order;
+
+        PendingRow(long row, OrderRequest request) {
+            this.row = row;
+            this.request = request;
+        }
+
+        PendingRow(long row, String error) {
+            this.row = row;
+            this.request = null;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.logistics.model.Address;
+import com.logistics.model.Courier;
+import com.logistics.model.ERole;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Assigns confirmed orders to courier users. Confirmed orders are queued and assigned in
+ * batches, each courier being picked by distance from the pickup address plus penalties for
+ * open orders already held and for how full their vehicle would be, among couriers whose
+ * company carries the order's chosen service and covers both ends of the route. Orders picked
+ * up together are first grouped into runs by {@link PickupConsolidator}, and each run goes to
+ * one courier as a single job.
+ *
+ * <p>Runs are placed largest first and only with couriers who have room for them by both
+ * weight and volume and stay within {@code app.assignmentMaxOpenOrders} with them, a
+ * first-fit-decreasing packing balanced by utilization. Loads are kept by
+ * {@link CourierLoadBalancer}. Each fleet reload caps runs to what one vehicle of the chosen
+ * company can carry, else the largest vehicle in the fleet, and to the open-order limit.
+ *
+ * <p>Loads and runs are claimed in memory before the batch is written. Afterwards the orders
+ * are re-read and only those that carry the chosen courier are counted; claims on the rest are
+ * released. If the batch fails outright every claim is released and its orders are queued again.
+ *
+ * <p>Courier positions (the address on their profile) are bucketed into a grid of
+ * {@code app.assignmentGridCellDegrees} cells, searched in rings outward from the pickup until
+ * no nearer courier can exist.
+ */
+@Service
+public class CourierAssignmentService {
+    private static final Logger logger = LoggerFactory.getLogger(CourierAssignmentService.class);
+
+    private static final List<OrderStatus> CLOSED = List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CourierCoverageIndex courierCoverageIndex;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private PickupConsolidator pickupConsolidator;
+
+    @Autowired
+    private CourierLoadBalancer courierLoadBalancer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.assignmentEnabled:true}")
+    private boolean enabled;
+
+    @Value("${app.assignmentBatchSize:1000}")
+    private int batchSize;
+
+    @Value("${app.assignmentGridCellDegrees:0.25}")
+    private double cellDegrees;
+
+    @Value("${app.assignmentMaxRings:40}")
+    private int maxRings;
+
+    @Value("${app.assignmentLoadPenaltyKm:5}")
+    private double loadPenaltyKm;
+
+    @Value("${app.assignmentMaxOpenOrders:40}")
+    private int maxOpenOrders;
+
+    @Value("${app.assignmentUtilizationPenaltyKm:20}")
+    private double utilizationPenaltyKm;
+
+    private final AtomicReference<Fleet> fleet = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    private Counter assigned;
+    private Counter unassignable;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        assigned = Counter.builder("orders.assignment.assigned").register(meterRegistry);
+        unassignable = Counter.builder("orders.assignment.unassignable").register(meterRegistry);
+        batchTimer = Timer.builder("orders.assignment.batch.duration").register(meterRegistry);
+        Gauge.builder("orders.assignment.queued", queued, Set::size).register(meterRegistry);
+        fleet.set(Fleet.build(List.of(), Map.of(), cellDegrees));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        reloadFleet();
+        enqueueUnassigned();
+    }
+
+    /**
+     * Queues orders that have just been confirmed and releases couriers from orders that have
+     * been delivered or cancelled.
+     */
+    public void onTransitions(Collection<OrderStatsService.Transition> transitions) {
+        if (!enabled) {
+            return;
+        }
+        for (OrderStatsService.Transition transition : transitions) {
+            Order order = transition.getOrder();
+            if (order.getCourierId() == null) {
+                if (transition.getTo() == OrderStatus.CONFIRMED) {
+                    enqueue(order.getId());
+                }
+            } else if (isOpen(transition.getFrom()) != isOpen(transition.getTo())) {
+                if (isOpen(transition.getTo())) {
+                    courierLoadBalancer.add(order.getCourierId(), List.of(order));
+                } else {
+                    courierLoadBalancer.remove(order.getCourierId(), order);
+                }
+            }
+        }
+    }
+
+    public void enqueue(String orderId) {
+        if (queued.add(orderId)) {
+            queue.add(orderId);
+        }
+    }
+
+    // Picks up orders confirmed while this instance was down or left unassigned for lack of a courier
+    @Scheduled(fixedDelayString = "${app.assignmentSweepMs:300000}", initialDelayString = "${app.assignmentSweepMs:300000}")
+    public void enqueueUnassigned() {
+        if (!enabled) {
+            return;
+        }
+        Query query = new Query(Criteria.where("status").is(OrderStatus.CONFIRMED).and("courierId").is(null))
+                .cursorBatchSize(batchSize);
+        query.fields().include("_id");
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Order.class))) {
+            stream.forEach(document -> enqueue(document.get("_id").toString()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.courierIndexRefreshMs:300000}", initialDelayString = "${app.courierIndexRefreshMs:300000}")
+    public void reloadFleet() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Courier> companies = new HashMap<>();
+        for (Courier courier : courierCoverageIndex.getActiveCouriers()) {
+            if (courier.getName() != null) {
+                companies.putIfAbsent(ShippingQuoteService.key(courier.getName()), courier);
+            }
+        }
+        Query couriers = new Query(Criteria.where("roles.name").is(ERole.ROLE_COURIER.name()).and("isActive").is(true));
+        Fleet loaded = Fleet.build(mongoTemplate.find(couriers, User.class), companies, cellDegrees);
+        fleet.set(loaded);
+        courierLoadBalancer.reload(loaded.ids, loaded.companies);
+        limitRuns(loaded);
+
+        logger.info("Loaded {} couriers for assignment ({} without a position)", loaded.size(), loaded.unplaced.length);
+    }
+
+    // A run no single courier can take is only ever split up again
+    private void limitRuns(Fleet loaded) {
+        Map<String, PickupConsolidator.Limits> byLane = new HashMap<>();
+        loaded.companiesByName.forEach((lane, company) -> byLane.put(lane, new PickupConsolidator.Limits(
+                courierLoadBalancer.capacityKg(company), courierLoadBalancer.capacityM3(company), maxOpenOrders)));
+        double largestKg = loaded.size() > 0 ? 0.0 : Double.MAX_VALUE;
+        double largestM3 = loaded.size() > 0 ? 0.0 : Double.MAX_VALUE;
+        for (Courier company : loaded.companies) {
+            largestKg = Math.max(largestKg, courierLoadBalancer.capacityKg(company));
+            largestM3 = Math.max(largestM3, courierLoadBalancer.capacityM3(company));
+        }
+        pickupConsolidator.limit(byLane, new PickupConsolidator.Limits(largestKg, largestM3, maxOpenOrders));
+    }
+
+    @Scheduled(fixedDelayString = "${app.assignmentBatchMs:500}")
+    public void assignQueued() {
+        if (!enabled || queue.isEmpty()) {
+            return;
+        }
+        // Everything queued is consolidated in one pass, so a sweep of many pending orders groups fully
+        List<String> orderIds = new ArrayList<>();
+        for (String orderId = queue.poll(); orderId != null; orderId = queue.poll()) {
+            orderIds.add(orderId);
+        }
+        batchTimer.record(() -> assign(orderIds));
+    }
+
+    private void assign(List<String> orderIds) {
+        // Orders whose courier's load has been claimed but not yet confirmed, and runs given a courier in this batch
+        List<Order> assignedOrders = new ArrayList<>();
+        List<PickupConsolidator.PickupRun> claimedRuns = new ArrayList<>();
+        boolean failed = false;
+        try {
+            List<Order> orders = new ArrayList<>(orderIds.size());
+            for (int i = 0; i < orderIds.size(); i += batchSize) {
+                orders.addAll(findAssignable(orderIds.subList(i, Math.min(i + batchSize, orderIds.size()))));
+            }
+
+            Fleet current = fleet.get();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+            List<PickupConsolidator.PickupRun> runs = pickupConsolidator.consolidate(orders,
+                    (run, order) -> canJoin(current, run.getCourierId(), order));
+            // Largest first, while couriers still have room for them
+            runs.sort(Comparator.comparingDouble((PickupConsolidator.PickupRun run) ->
+                    courierLoadBalancer.relativeSize(run.getWeightKg(), run.getVolumeM3())).reversed());
+            for (PickupConsolidator.PickupRun run : runs) {
+                List<Order> runOrders = List.copyOf(run.getOrders());
+                List<Order> leftOver = new ArrayList<>();
+                String courierId = run.getCourierId();
+                // A new single-order run that found no courier will not find one on its own either
+                boolean retry = courierId != null || runOrders.size() > 1;
+                if (courierId == null) {
+                    int courier = pick(current, runOrders);
+                    if (courier < 0) {
+                        pickupConsolidator.discard(run);
+                        leftOver.addAll(runOrders);
+                        runOrders = List.of();
+                    } else {
+                        courierId = current.ids[courier];
+                        courierLoadBalancer.add(courierId, runOrders);
+                    }
+                } else {
+                    // The courier already collecting here takes whatever still fits in the vehicle
+                    List<Order> fitting = new ArrayList<>(runOrders.size());
+                    for (Order order : runOrders) {
+                        if (courierLoadBalancer.openOrders(courierId) < maxOpenOrders
+                                && courierLoadBalancer.fits(courierId, CourierLoadBalancer.weightKg(order), CourierLoadBalancer.volumeM3(order))) {
+                            courierLoadBalancer.add(courierId, List.of(order));
+                            fitting.add(order);
+                        } else {
+                            leftOver.add(order);
+                        }
+                    }
+                    runOrders = fitting;
+                }
+                if (courierId != null) {
+                    if (run.getCourierId() == null) {
+                        claimedRuns.add(run);
+                    }
+                    pickupConsolidator.assigned(run, courierId);
+                    for (Order order : runOrders) {
+                        assign(bulk, assignedOrders, order, courierId, run.getId());
+                    }
+                }
+
+                // Orders no single courier could take with the rest of the run are tried one by one
+                for (Order order : leftOver) {
+                    int single = retry ? pick(current, List.of(order)) : -1;
+                    if (single < 0) {
+                        unassignable.increment();
+                    } else {
+                        courierLoadBalancer.add(current.ids[single], List.of(order));
+                        assign(bulk, assignedOrders, order, current.ids[single], null);
+                    }
+                }
+            }
+            if (assignedOrders.isEmpty()) {
+                return;
+            }
+
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                // Unordered, so the writes that did not fail still landed; the re-read below tells which
+                logger.warn("{} of {} assignments failed: {}", e.getErrors().size(), assignedOrders.size(), e.getMessage());
+            }
+
+            List<Order> landed = landed(assignedOrders);
+            if (landed.size() < assignedOrders.size()) {
+                // Someone else assigned the rest in the meantime; the next fleet reload counts them for their courier
+                logger.debug("{} of {} assignments lost a race", assignedOrders.size() - landed.size(), assignedOrders.size());
+            }
+            Set<String> landedRuns = new HashSet<>();
+            for (Order order : landed) {
+                landedRuns.add(order.getPickupBatchId());
+            }
+            assignedOrders.removeAll(new HashSet<>(landed));
+            release(assignedOrders, claimedRuns, landedRuns);
+            assignedOrders.clear();
+            claimedRuns.clear();
+
+            orderStatsService.recordAssigned(landed);
+            assigned.increment(landed.size());
+        } catch (RuntimeException e) {
+            logger.warn("Courier assignment batch of {} orders failed: {}", orderIds.size(), e.getMessage());
+            release(assignedOrders, claimedRuns, Set.of());
+            failed = true;
+        } finally {
+            queued.removeAll(orderIds);
+            if (failed) {
+                // Those that did land before the failure are skipped when the orders are re-read
+                orderIds.forEach(this::enqueue);
+            }
+        }
+    }
+
+    // Orders from the batch that now carry the courier chosen for them
+    private List<Order> landed(List<Order> assignedOrders) {
+        Map<String, String> stored = new HashMap<>(assignedOrders.size() * 2);
+        for (int i = 0; i < assignedOrders.size(); i += batchSize) {
+            List<String> ids = new ArrayList<>();
+            for (Order order : assignedOrders.subList(i, Math.min(i + batchSize, assignedOrders.size()))) {
+                ids.add(order.getId());
+            }
+            Query query = new Query(Criteria.where("_id").in(ids));
+            query.fields().include("courierId");
+            for (Order order : mongoTemplate.find(query, Order.class)) {
+                stored.put(order.getId(), order.getCourierId());
+            }
+        }
+        List<Order> landed = new ArrayList<>(assignedOrders.size());
+        for (Order order : assignedOrders) {
+            if (order.getCourierId().equals(stored.get(order.getId()))) {
+                landed.add(order);
+            }
+        }
+        return landed;
+    }
+
+    // Gives back the load claimed for orders that were not assigned, and drops runs none of whose orders were
+    private void release(List<Order> orders, List<PickupConsolidator.PickupRun> claimedRuns, Set<String> landedRuns) {
+        for (Order order : orders) {
+            courierLoadBalancer.remove(order.getCourierId(), order);
+        }
+        for (PickupConsolidator.PickupRun run : claimedRuns) {
+            if (!landedRuns.contains(run.getId())) {
+                pickupConsolidator.discard(run);
+            }
+        }
+    }
+
+    // Re-read so orders assigned or moved on since they were queued are skipped
+    private List<Order> findAssignable(List<String> orderIds) {
+        Query query = new Query(Criteria.where("_id").in(orderIds).and("courierId").is(null)
+                .and("status").nin(CLOSED));
+        query.fields().include("sellerId", "buyerId", "status", "pricing.total",
+                "product.weight", "product.dimensions",
+                "shipping.from", "shipping.to", "shipping.courierService");
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    private static void assign(BulkOperations bulk, List<Order> assignedOrders, Order order, String courierId,
+                               String pickupBatchId) {
+        order.setCourierId(courierId);
+        order.setPickupBatchId(pickupBatchId);
+        assignedOrders.add(order);
+        Update update = new Update().set("courierId", courierId).inc("version", 1);
+        if (pickupBatchId != null) {
+            update.set("pickupBatchId", pickupBatchId);
+        }
+        bulk.updateOne(new Query(Criteria.where("_id").is(order.getId()).and("courierId").is(null)), update);
+    }
+
+    // A later order may join a run already assigned if that courier is still active and eligible for it
+    private boolean canJoin(Fleet current, String courierId, Order order) {
+        Integer candidate = current.indexes.get(courierId);
+        return candidate != null && order.getShipping() != null
+                && eligible(current, candidate, chosen(current, order), List.of(order));
+    }
+
+    private static Courier chosen(Fleet current, Order order) {
+        String courierService = order.getShipping().getCourierService();
+        return courierService != null ? current.companiesByName.get(ShippingQuoteService.key(courierService)) : null;
+    }
+
+    /**
+     * Index of the best courier in the fleet to collect the orders, which share a pickup point
+     * and courier service, or -1 if none is eligible for all of them.
+     */
+    private int pick(Fleet current, List<Order> orders) {
+        Order.Shipping shipping = orders.get(0).getShipping();
+        if (shipping == null) {
+            return -1;
+        }
+        Address from = shipping.getFrom();
+        Courier chosen = chosen(current, orders.get(0));
+        double weightKg = 0.0;
+        double volumeM3 = 0.0;
+        for (Order order : orders) {
+            weightKg += CourierLoadBalancer.weightKg(order);
+            volumeM3 += CourierLoadBalancer.volumeM3(order);
+        }
+
+        if (!GeoMath.hasPosition(from)) {
+            return leastLoaded(current, chosen, orders, weightKg, volumeM3);
+        }
+
+        double latitude = from.getLatitude();
+        double longitude = from.getLongitude();
+        int row = current.row(latitude);
+        int column = current.column(longitude);
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int ring = 0; ring <= maxRings; ring++) {
+            // Nothing in this ring or beyond can be nearer than the ring's inner edge
+            if (best >= 0 && innerDistanceKm(ring, latitude) >= bestScore) {
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : 2 * ring) {
+                    int[] members = current.cells.get(Fleet.cellKey(r, c));
+                    if (members == null) {
+                        continue;
+                    }
+                    for (int candidate : members) {
+                        String courierId = current.ids[candidate];
+                        int load = courierLoadBalancer.openOrders(courierId);
+                        if (load + orders.size() > maxOpenOrders || !courierLoadBalancer.fits(courierId, weightKg, volumeM3)
+                                || !eligible(current, candidate, chosen, orders)) {
+                            continue;
+                        }
+                        double score = GeoMath.distanceKm(latitude, longitude, current.latitudes[candidate],
+                                current.longitudes[candidate]) + load * loadPenaltyKm
+                                + courierLoadBalancer.utilizationWith(courierId, weightKg, volumeM3) * utilizationPenaltyKm;
+                        if (score < bestScore) {
+                            best = candidate;
+                            bestScore = score;
+                        }
+                    }
+                }
+            }
+        }
+        return best >= 0 ? best : leastLoaded(current, chosen, orders, weightKg, volumeM3);
+    }
+
+    private double innerDistanceKm(int ring, double latitude) {
+        if (ring == 0) {
+            return 0.0;
+        }
+        // Longitude degrees shrink towards the poles, so bound with the ring's most poleward latitude
+        double poleward = Math.min(89.0, Math.abs(latitude) + ring * cellDegrees);
+        return (ring - 1) * cellDegrees * GeoMath.KM_PER_DEGREE * Math.cos(Math.toRadians(poleward));
+    }
+
+    // Fallback for pickups without coordinates or with no placed courier in range: the emptiest vehicle that fits
+    private int leastLoaded(Fleet current, Courier chosen, List<Order> orders, double weightKg, double volumeM3) {
+        int best = -1;
+        double bestUtilization = Double.MAX_VALUE;
+        for (int candidate = 0; candidate < current.size(); candidate++) {
+            String courierId = current.ids[candidate];
+            if (courierLoadBalancer.openOrders(courierId) + orders.size() > maxOpenOrders
+                    || !courierLoadBalancer.fits(courierId, weightKg, volumeM3)) {
+                continue;
+            }
+            double utilization = courierLoadBalancer.utilizationWith(courierId, weightKg, volumeM3);
+            if (utilization < bestUtilization && eligible(current, candidate, chosen, orders)) {
+                best = candidate;
+                bestUtilization = utilization;
+            }
+        }
+        return best;
+    }
+
+    // A courier qualifies if their company is the one the seller chose, or, failing a known choice, covers every route
+    private boolean eligible(Fleet current, int candidate, Courier chosen, List<Order> orders) {
+        Courier company = current.companies[candidate];
+        if (chosen != null) {
+            return company == chosen;
+        }
+        if (company == null) {
+            return true;
+        }
+        for (Order order : orders) {
+            Address from = order.getShipping().getFrom();
+            Address to = order.getShipping().getTo();
+            if (!courierCoverageIndex.serves(company, city(from), postalCode(from))
+                    || !courierCoverageIndex.serves(company, city(to), postalCode(to))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String city(Address address) {
+        return address != null ? address.getCity() : null;
+    }
+
+    private static String postalCode(Address address) {
+        return address != null ? address.getPostalCode() : null;
+    }
+
+    private static boolean isOpen(OrderStatus status) {
+        return status != null && status != OrderStatus.PENDING && !CLOSED.contains(status);
+    }
+
+    /**
+     * Courier users laid out column-wise, with placed couriers bucketed by grid cell.
+     */
+    private static final class Fleet {
+        final String[] ids;
+        final Map<String, Integer> indexes;
+        final double[] latitudes;
+        final double[] longitudes;
+        final Courier[] companies;
+        final Map<String, Courier> companiesByName;
+        final Map<Long, int[]> cells;
+        final int[] unplaced;
+        final double cellDegrees;
+
+        private Fleet(List<User> members, Map<String, Courier> companiesByName, double cellDegrees) {
+            int size = members.size();
+            this.ids = new String[size];
+            this.indexes = new HashMap<>(size * 2);
+            this.latitudes = new double[size];
+            this.longitudes = new double[size];
+            this.companies = new Courier[size];
+            this.companiesByName = companiesByName;
+            this.cellDegrees = cellDegrees;
+
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            List<Integer> withoutPosition = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                User user = members.get(i);
+                User.Profile profile = user.getProfile();
+                ids[i] = user.getId();
+                indexes.put(ids[i], i);
+                companies[i] = companyOf(user, companiesByName);
+                Address base = profile != null ? profile.getAddress() : null;
+                if (GeoMath.hasPosition(base)) {
+                    latitudes[i] = base.getLatitude();
+                    longitudes[i] = base.getLongitude();
+                    buckets.computeIfAbsent(cellKey(row(latitudes[i]), column(longitudes[i])), key -> new ArrayList<>()).add(i);
+                } else {
+                    withoutPosition.add(i);
+                }
+            }
+
+            Map<Long, int[]> packed = new HashMap<>(buckets.size() * 2);
+            buckets.forEach((key, indexes) -> packed.put(key, indexes.stream().mapToInt(Integer::intValue).toArray()));
+            this.cells = packed;
+            this.unplaced = withoutPosition.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Users whose company is set but not an active courier are left out
+        static Fleet build(List<User> users, Map<String, Courier> companiesByName, double cellDegrees) {
+            List<User> members = new ArrayList<>(users.size());
+            for (User user : users) {
+                String company = user.getProfile() != null ? user.getProfile().getCompany() : null;
+                if (company == null || company.isBlank() || companyOf(user, companiesByName) != null) {
+                    members.add(user);
+                }
+            }
+            return new Fleet(members, companiesByName, cellDegrees);
+        }
+
+        private static Courier companyOf(User user, Map<String, Courier> companiesByName) {
+            String company = user.getProfile() != null ? user.getProfile().getCompany() : null;
+            return company != null && !company.isBlank() ? companiesByName.get(ShippingQuoteService.key(company)) : null;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int row(double latitude) {
+            return (int) Math.floor(latitude / cellDegrees);
+        }
+
+        int column(double longitude) {
+            return (int) Math.floor(longitude / cellDegrees);
+        }
+
+        static long cellKey(int row, int column) {
+            return ((long) row << 32) | (column & 0xffffffffL);
+        }
+    }
+}
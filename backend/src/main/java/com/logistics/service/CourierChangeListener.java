@@ -0,0 +1,31 @@
+package com.logistics.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.logistics.model.Courier;
+
+/**
+ * Rebuilds the in-memory courier index, and with it the rate tables, whenever a {@link Courier} document is saved or
+ * deleted through this instance.
+ */
+@Component
+public class CourierChangeListener extends AbstractMongoEventListener<Courier> {
+
+    @Autowired
+    private CourierCoverageIndex courierCoverageIndex;
+
+    @Override
+    public void onAfterSave(@NonNull AfterSaveEvent<Courier> event) {
+        courierCoverageIndex.reload();
+    }
+
+    @Override
+    public void onAfterDelete(@NonNull AfterDeleteEvent<Courier> event) {
+        courierCoverageIndex.reload();
+    }
+}
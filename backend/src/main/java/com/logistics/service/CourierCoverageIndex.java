@@ -0,0 +1,219 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.logistics.model.Courier;
+import com.logistics.repository.CourierRepository;
+
+/**
+ * Inverted index from locations to the active couriers serving them. A coverage entry that
+ * contains a digit is a postal code prefix and goes into a trie; any other entry is a city
+ * name. Couriers without coverage serve everywhere. The index is rebuilt as a whole and
+ * swapped in atomically, so lookups never query the database.
+ */
+@Service
+public class CourierCoverageIndex {
+    private static final Logger logger = LoggerFactory.getLogger(CourierCoverageIndex.class);
+
+    @Autowired
+    private CourierRepository courierRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.build(List.of()));
+
+    // Ahead of other startup listeners that read couriers from the index
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        reload();
+    }
+
+    // Catches courier edits made outside this instance
+    @Scheduled(fixedDelayString = "${app.courierIndexRefreshMs:300000}", initialDelayString = "${app.courierIndexRefreshMs:300000}")
+    public void reload() {
+        Snapshot built = Snapshot.build(courierRepository.findByIsActiveTrue());
+        snapshot.set(built);
+        logger.debug("Indexed coverage of {} couriers ({} cities)", built.couriers.size(), built.byCity.size());
+    }
+
+    public List<Courier> getActiveCouriers() {
+        return snapshot.get().couriers;
+    }
+
+    /**
+     * Active couriers serving both locations. Each location may be a city name, a postal code
+     * or null for "anywhere".
+     */
+    public List<Courier> findEligible(String from, String to) {
+        Snapshot current = snapshot.get();
+        BitSet eligible = current.serving(from, null);
+        eligible.and(current.serving(to, null));
+        return current.select(eligible);
+    }
+
+    /**
+     * Active couriers serving a route given as city and postal code at each end; a courier
+     * qualifies at an end if either its cities or its postal prefixes match.
+     */
+    public List<Courier> findEligible(String fromCity, String fromPostalCode, String toCity, String toPostalCode) {
+        Snapshot current = snapshot.get();
+        BitSet eligible = current.serving(fromCity, fromPostalCode);
+        eligible.and(current.serving(toCity, toPostalCode));
+        return current.select(eligible);
+    }
+
+    // The active courier with this name, as orders record it in shipping.courierService
+    public Courier findByName(String name) {
+        return name != null ? snapshot.get().byName.get(key(name)) : null;
+    }
+
+    public boolean serves(Courier courier, String city, String postalCode) {
+        Snapshot current = snapshot.get();
+        Integer index = current.byId.get(courier.getId());
+        return index != null && current.serving(city, postalCode).get(index);
+    }
+
+    static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Postal codes compare without spaces or dashes and ignoring case, e.g. "SW1A 1AA" = "sw1a1aa"
+    static String postalKey(String postalCode) {
+        StringBuilder key = new StringBuilder(postalCode.length());
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = postalCode.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isPostal(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isDigit(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Snapshot {
+        final List<Courier> couriers;
+        final Map<String, Integer> byId = new HashMap<>();
+        final Map<String, Courier> byName = new HashMap<>();
+        final Map<String, BitSet> byCity = new HashMap<>();
+        final PostalTrie byPostalPrefix = new PostalTrie();
+        final BitSet everywhere = new BitSet();
+
+        private Snapshot(List<Courier> couriers) {
+            this.couriers = List.copyOf(couriers);
+        }
+
+        static Snapshot build(List<Courier> couriers) {
+            Snapshot snapshot = new Snapshot(couriers);
+            for (int i = 0; i < snapshot.couriers.size(); i++) {
+                Courier courier = snapshot.couriers.get(i);
+                snapshot.byId.put(courier.getId(), i);
+                if (courier.getName() != null) {
+                    snapshot.byName.putIfAbsent(key(courier.getName()), courier);
+                }
+                if (courier.getCoverage() == null || courier.getCoverage().isEmpty()) {
+                    snapshot.everywhere.set(i);
+                    continue;
+                }
+                for (String entry : courier.getCoverage()) {
+                    if (entry == null || entry.isBlank()) {
+                        continue;
+                    }
+                    if (isPostal(entry)) {
+                        snapshot.byPostalPrefix.add(postalKey(entry), i);
+                    } else {
+                        snapshot.byCity.computeIfAbsent(key(entry), c -> new BitSet()).set(i);
+                    }
+                }
+            }
+            return snapshot;
+        }
+
+        // A null city and postal code means anywhere, so every courier
+        BitSet serving(String city, String postalCode) {
+            BitSet serving = (BitSet) everywhere.clone();
+            if (city == null && postalCode == null) {
+                serving.set(0, couriers.size());
+                return serving;
+            }
+            if (city != null) {
+                BitSet covering = byCity.get(key(city));
+                if (covering != null) {
+                    serving.or(covering);
+                }
+                // A single free-form value may be a postal code
+                if (postalCode == null && isPostal(city)) {
+                    byPostalPrefix.collect(postalKey(city), serving);
+                }
+            }
+            if (postalCode != null) {
+                byPostalPrefix.collect(postalKey(postalCode), serving);
+            }
+            return serving;
+        }
+
+        List<Courier> select(BitSet indexes) {
+            List<Courier> selected = new ArrayList<>(indexes.cardinality());
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                selected.add(couriers.get(i));
+            }
+            return selected;
+        }
+    }
+
+    /**
+     * Prefix trie over postal code characters. Each node records the couriers whose coverage
+     * prefix ends there, so a lookup collects every shorter prefix along the path.
+     */
+    private static final class PostalTrie {
+        private final Node root = new Node();
+
+        void add(String prefix, int courier) {
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            if (node.couriers == null) {
+                node.couriers = new BitSet();
+            }
+            node.couriers.set(courier);
+        }
+
+        void collect(String postalCode, BitSet into) {
+            Node node = root;
+            for (int i = 0; i < postalCode.length() && node != null; i++) {
+                node = node.children.get(postalCode.charAt(i));
+                if (node != null && node.couriers != null) {
+                    into.or(node.couriers);
+                }
+            }
+        }
+
+        private static final class Node {
+            final Map<Character, Node> children = new HashMap<>(4);
+            BitSet couriers;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import com.logistics.model.Courier;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * How full each courier's vehicle is, by weight and by volume. Loads move as orders are
+ * assigned, delivered or cancelled, and are recounted from the orders whenever the fleet is
+ * reloaded so drift from missed updates does not accumulate. Capacity is the company's
+ * {@code vehicleCapacityKg}/{@code vehicleCapacityM3}, else {@code app.courierDefaultCapacityKg}
+ * and {@code app.courierDefaultCapacityM3}.
+ *
+ * <p>Each courier's load is published as {@code couriers.utilization} (tagged by courier and
+ * dimension, 0..1) and {@code couriers.open.orders}.
+ */
+@Service
+public class CourierLoadBalancer {
+
+    private static final List<OrderStatus> CLOSED = List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.courierDefaultCapacityKg:1000}")
+    private double defaultCapacityKg;
+
+    @Value("${app.courierDefaultCapacityM3:8}")
+    private double defaultCapacityM3;
+
+    private final Map<String, Load> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Sets capacities for the fleet's couriers and recounts their loads from open orders.
+     *
+     * @param companies Each courier's company, or null for independents
+     */
+    public void reload(String[] courierIds, Courier[] companies) {
+        Aggregation totals = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("courierId").ne(null).and("status").nin(CLOSED)),
+                Aggregation.project("courierId")
+                        .and("product.weight").as("weight")
+                        .and(ArithmeticOperators.Multiply.valueOf("product.dimensions.length")
+                                .multiplyBy("product.dimensions.width")
+                                .multiplyBy("product.dimensions.height")).as("volume"),
+                Aggregation.group("courierId").count().as("count").sum("weight").as("weightKg").sum("volume").as("volumeCm3"));
+        Map<String, Document> recounted = new HashMap<>();
+        for (Document total : mongoTemplate.aggregate(totals, Order.class, Document.class)) {
+            recounted.put(total.get("_id").toString(), total);
+        }
+
+        Map<String, Load> reloaded = new HashMap<>();
+        for (int i = 0; i < courierIds.length; i++) {
+            Courier company = companies[i];
+            Load load = loads.get(courierIds[i]);
+            if (load == null || load.meters.isEmpty()) {
+                load = register(courierIds[i]);
+                loads.put(courierIds[i], load);
+            }
+            load.setCapacity(capacityKg(company), capacityM3(company));
+            Document total = recounted.get(courierIds[i]);
+            load.set(total != null ? ((Number) total.get("count")).intValue() : 0,
+                    total != null ? ((Number) total.get("weightKg")).doubleValue() : 0.0,
+                    total != null ? ((Number) total.get("volumeCm3")).doubleValue() / 1_000_000.0 : 0.0);
+            reloaded.put(courierIds[i], load);
+        }
+
+        // Couriers who left the fleet take their gauges with them
+        List<String> departed = new ArrayList<>(loads.keySet());
+        departed.removeAll(reloaded.keySet());
+        for (String courierId : departed) {
+            Load load = loads.remove(courierId);
+            load.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    // What one vehicle of the company carries, or an independent courier's when company is null
+    public double capacityKg(Courier company) {
+        return company != null && company.getVehicleCapacityKg() > 0 ? company.getVehicleCapacityKg() : defaultCapacityKg;
+    }
+
+    public double capacityM3(Courier company) {
+        return company != null && company.getVehicleCapacityM3() > 0 ? company.getVehicleCapacityM3() : defaultCapacityM3;
+    }
+
+    public int openOrders(String courierId) {
+        Load load = loads.get(courierId);
+        return load != null ? load.orders() : 0;
+    }
+
+    public boolean fits(String courierId, double weightKg, double volumeM3) {
+        return load(courierId).fits(weightKg, volumeM3);
+    }
+
+    // The fuller of weight and volume, as a share of capacity, once the extra load is on board
+    public double utilizationWith(String courierId, double weightKg, double volumeM3) {
+        return load(courierId).utilizationWith(weightKg, volumeM3);
+    }
+
+    // How much of a default vehicle a load fills, by its fuller dimension; orders loads for packing
+    public double relativeSize(double weightKg, double volumeM3) {
+        return Math.max(weightKg / defaultCapacityKg, volumeM3 / defaultCapacityM3);
+    }
+
+    public void add(String courierId, Collection<Order> orders) {
+        double weightKg = 0.0;
+        double volumeM3 = 0.0;
+        for (Order order : orders) {
+            weightKg += weightKg(order);
+            volumeM3 += volumeM3(order);
+        }
+        load(courierId).add(orders.size(), weightKg, volumeM3);
+    }
+
+    public void remove(String courierId, Order order) {
+        load(courierId).add(-1, -weightKg(order), -volumeM3(order));
+    }
+
+    // Couriers outside the fleet still get a default-sized load, but no gauges
+    private Load load(String courierId) {
+        Load load = loads.get(courierId);
+        return load != null ? load : loads.computeIfAbsent(courierId, id -> new Load(defaultCapacityKg, defaultCapacityM3));
+    }
+
+    private Load register(String courierId) {
+        Load load = new Load(defaultCapacityKg, defaultCapacityM3);
+        load.meters.add(Gauge.builder("couriers.utilization", load, Load::weightUtilization)
+                .tags("courier", courierId, "dimension", "weight").register(meterRegistry));
+        load.meters.add(Gauge.builder("couriers.utilization", load, Load::volumeUtilization)
+                .tags("courier", courierId, "dimension", "volume").register(meterRegistry));
+        load.meters.add(Gauge.builder("couriers.open.orders", load, Load::orders)
+                .tags("courier", courierId).register(meterRegistry));
+        return load;
+    }
+
+    static double weightKg(Order order) {
+        return order.getProduct() != null ? order.getProduct().getWeight() : 0.0;
+    }
+
+    // Dimensions are in cm
+    static double volumeM3(Order order) {
+        Order.Product product = order.getProduct();
+        return product != null && product.getDimensions() != null
+                ? ShippingQuoteService.volume(product.getDimensions()) / 1_000_000.0
+                : 0.0;
+    }
+
+    private static final class Load {
+        final List<Meter> meters = new ArrayList<>(3);
+        private double capacityKg;
+        private double capacityM3;
+        private int orders;
+        private double weightKg;
+        private double volumeM3;
+
+        Load(double capacityKg, double capacityM3) {
+            this.capacityKg = capacityKg;
+            this.capacityM3 = capacityM3;
+        }
+
+        synchronized void setCapacity(double capacityKg, double capacityM3) {
+            this.capacityKg = capacityKg;
+            this.capacityM3 = capacityM3;
+        }
+
+        synchronized void set(int orders, double weightKg, double volumeM3) {
+            this.orders = orders;
+            this.weightKg = weightKg;
+            this.volumeM3 = volumeM3;
+        }
+
+        synchronized void add(int orders, double weightKg, double volumeM3) {
+            this.orders = Math.max(0, this.orders + orders);
+            this.weightKg = Math.max(0.0, this.weightKg + weightKg);
+            this.volumeM3 = Math.max(0.0, this.volumeM3 + volumeM3);
+        }
+
+        synchronized boolean fits(double weightKg, double volumeM3) {
+            return this.weightKg + weightKg <= capacityKg && this.volumeM3 + volumeM3 <= capacityM3;
+        }
+
+        synchronized double utilizationWith(double weightKg, double volumeM3) {
+            return Math.max((this.weightKg + weightKg) / capacityKg, (this.volumeM3 + volumeM3) / capacityM3);
+        }
+
+        synchronized int orders() {
+            return orders;
+        }
+
+        synchronized double weightUtilization() {
+            return weightKg / capacityKg;
+        }
+
+        synchronized double volumeUtilization() {
+            return volumeM3 / capacityM3;
+        }
+    }
+}
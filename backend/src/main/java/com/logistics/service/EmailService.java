@@ -1,5 +1,7 @@
 package com.logistics.service;
 
+import java.util.List;
+
 import com.logistics.model.Order;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,6 +21,21 @@ public class EmailService {
 
     @Async
     public void sendOrderConfirmationEmail(String toEmail, Order order) {
+        mailSender.send(orderConfirmationMessage(toEmail, order));
+    }
+
+    // One handoff for a whole batch; the messages go out over a single connection
+    @Async
+    public void sendOrderConfirmationEmails(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        mailSender.send(notifications.stream()
+                .map(n -> orderConfirmationMessage(n.getToEmail(), n.getOrder()))
+                .toArray(SimpleMailMessage[]::new));
+    }
+
+    private SimpleMailMessage orderConfirmationMessage(String toEmail, Order order) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(fromEmail);
         message.setTo(toEmail);
@@ -44,11 +61,25 @@ public class EmailService {
         );
         
         message.setText(text);
-        mailSender.send(message);
+        return message;
     }
 
     @Async
     public void sendStatusUpdateEmail(String toEmail, Order order, String newStatus) {
+        mailSender.send(statusUpdateMessage(toEmail, order, newStatus));
+    }
+
+    @Async
+    public void sendStatusUpdateEmails(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        mailSender.send(notifications.stream()
+                .map(n -> statusUpdateMessage(n.getToEmail(), n.getOrder(), n.getStatus()))
+                .toArray(SimpleMailMessage[]::new));
+    }
+
+    private SimpleMailMessage statusUpdateMessage(String toEmail, Order order, String newStatus) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(fromEmail);
         message.setTo(toEmail);
@@ -69,6 +100,26 @@ public class EmailService {
         );
         
         message.setText(text);
-        mailSender.send(message);
+        return message;
+    }
+
+    public static class Notification {
+        private final String toEmail;
+        private final Order order;
+        private final String status;
+
+        public Notification(String toEmail, Order order) {
+            this(toEmail, order, null);
+        }
+
+        public Notification(String toEmail, Order order, String status) {
+            this.toEmail = toEmail;
+            this.order = order;
+            this.status = status;
+        }
+
+        public String getToEmail() { return toEmail; }
+        public Order getOrder() { return order; }
+        public String getStatus() { return status; }
     }
 }
@@ -0,0 +1,212 @@
+package com.logistics.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.logistics.model.Address;
+import com.logistics.model.Courier;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+
+/**
+ * Estimates delivery times without touching the database. The primary source is the mean
+ * transit time of recent deliveries between the same two cities, held in a packed table that
+ * is rebuilt in the background. Routes without enough history fall back to haversine distance
+ * at {@code app.etaAverageSpeedKmh} plus handling time, never quicker than the courier's
+ * advertised average delivery time.
+ */
+@Service
+public class EtaService {
+    private static final Logger logger = LoggerFactory.getLogger(EtaService.class);
+
+    private static final double DEFAULT_HOURS = 72.0; // the old flat three days
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CourierCoverageIndex courierCoverageIndex;
+
+    @Value("${app.etaHistoryDays:90}")
+    private int historyDays;
+
+    @Value("${app.etaMinSamples:5}")
+    private int minSamples;
+
+    @Value("${app.etaAverageSpeedKmh:55}")
+    private double averageSpeedKmh;
+
+    @Value("${app.etaHandlingHours:12}")
+    private double handlingHours;
+
+    @Value("${app.etaOutForDeliveryHours:8}")
+    private double outForDeliveryHours;
+
+    private final AtomicReference<TransitTable> transitTable = new AtomicReference<>(TransitTable.EMPTY);
+
+    /**
+     * Expected transit time from pickup to delivery, in hours.
+     */
+    public double estimateHours(Order.Shipping shipping) {
+        Address from = shipping.getFrom();
+        Address to = shipping.getTo();
+        if (from != null && to != null && from.getCity() != null && to.getCity() != null) {
+            float historical = transitTable.get().hours(from.getCity(), to.getCity());
+            if (!Float.isNaN(historical)) {
+                return historical;
+            }
+        }
+
+        Courier courier = courierCoverageIndex.findByName(shipping.getCourierService());
+        double courierHours = courier != null && courier.getAvgDeliveryTime() > 0 ? courier.getAvgDeliveryTime() : 0.0;
+        if (GeoMath.hasPosition(from) && GeoMath.hasPosition(to)) {
+            double distanceKm = GeoMath.distanceKm(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+            return Math.max(courierHours, handlingHours + distanceKm / averageSpeedKmh);
+        }
+        return courierHours > 0 ? courierHours : DEFAULT_HOURS;
+    }
+
+    public LocalDateTime estimateDelivery(Order.Shipping shipping, LocalDateTime from) {
+        return from.plusMinutes(Math.round(estimateHours(shipping) * 60));
+    }
+
+    /**
+     * Re-estimates delivery after a tracking event, from the share of the journey still ahead
+     * at that stage. Returns null for statuses that do not move the estimate.
+     */
+    public LocalDateTime reestimate(Order.Shipping shipping, OrderStatus status, LocalDateTime eventTime) {
+        if (shipping == null) {
+            return null;
+        }
+        double remainingHours = switch (status) {
+            case SHIPPED -> estimateHours(shipping) * 0.85;
+            case IN_TRANSIT -> estimateHours(shipping) * 0.5;
+            case OUT_FOR_DELIVERY -> outForDeliveryHours;
+            default -> -1;
+        };
+        if (remainingHours < 0) {
+            return null;
+        }
+        return eventTime.plusMinutes(Math.round(remainingHours * 60));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the city-pair table from deliveries in the last {@code app.etaHistoryDays} days,
+     * timing each from creation to its final update. Pairs with fewer than
+     * {@code app.etaMinSamples} deliveries are left out.
+     */
+    @Scheduled(fixedDelayString = "${app.etaRefreshMs:3600000}", initialDelayString = "${app.etaRefreshMs:3600000}")
+    public void refresh() {
+        long started = System.currentTimeMillis();
+        // Type 9 is a BSON date; seed data with string dates cannot be subtracted
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").is(OrderStatus.DELIVERED)
+                        .and("updatedAt").gte(LocalDateTime.now().minusDays(historyDays)).type(9)
+                        .and("createdAt").type(9)),
+                Aggregation.project()
+                        .and("shipping.from.city").as("from")
+                        .and("shipping.to.city").as("to")
+                        .and(ArithmeticOperators.Subtract.valueOf("updatedAt").subtract("createdAt")).as("transitMs"),
+                Aggregation.group("from", "to").avg("transitMs").as("meanMs").count().as("samples"),
+                Aggregation.match(Criteria.where("samples").gte(minSamples)));
+
+        List<String[]> pairs = new ArrayList<>();
+        List<Float> hours = new ArrayList<>();
+        for (Document pair : mongoTemplate.aggregate(aggregation, Order.class, Document.class)) {
+            Document key = pair.get("_id", Document.class);
+            if (key.getString("from") == null || key.getString("to") == null || !(pair.get("meanMs") instanceof Number mean)) {
+                continue;
+            }
+            pairs.add(new String[] {key.getString("from"), key.getString("to")});
+            hours.add((float) (mean.doubleValue() / 3_600_000.0));
+        }
+
+        TransitTable table = TransitTable.build(pairs, hours);
+        transitTable.set(table);
+        logger.info("Loaded transit times for {} city pairs in {} ms", table.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * City pairs packed as sorted {@code long} keys (origin index in the high half, destination
+     * in the low half) with a parallel {@code float} array of mean transit hours, so a lookup is
+     * two hash probes and a binary search over primitive arrays.
+     */
+    static final class TransitTable {
+        static final TransitTable EMPTY = build(List.of(), List.of());
+
+        private final Map<String, Integer> cities;
+        private final long[] keys;
+        private final float[] hours;
+
+        private TransitTable(Map<String, Integer> cities, long[] keys, float[] hours) {
+            this.cities = cities;
+            this.keys = keys;
+            this.hours = hours;
+        }
+
+        static TransitTable build(List<String[]> pairs, List<Float> hours) {
+            Map<String, Integer> cities = new HashMap<>();
+            long[][] entries = new long[pairs.size()][];
+            for (int i = 0; i < pairs.size(); i++) {
+                int from = cities.computeIfAbsent(CourierCoverageIndex.key(pairs.get(i)[0]), c -> cities.size());
+                int to = cities.computeIfAbsent(CourierCoverageIndex.key(pairs.get(i)[1]), c -> cities.size());
+                entries[i] = new long[] {pack(from, to), i};
+            }
+            Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+            long[] keys = new long[entries.length];
+            float[] packedHours = new float[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                keys[i] = entries[i][0];
+                packedHours[i] = hours.get((int) entries[i][1]);
+            }
+            return new TransitTable(cities, keys, packedHours);
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        // NaN when the pair has no history
+        float hours(String fromCity, String toCity) {
+            Integer from = cities.get(CourierCoverageIndex.key(fromCity));
+            Integer to = from != null ? cities.get(CourierCoverageIndex.key(toCity)) : null;
+            if (to == null) {
+                return Float.NaN;
+            }
+            int index = Arrays.binarySearch(keys, pack(from, to));
+            return index >= 0 ? hours[index] : Float.NaN;
+        }
+
+        private static long pack(int from, int to) {
+            return ((long) from << 32) | (to & 0xffffffffL);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.logistics.service;
+
+import com.logistics.model.Address;
+
+/**
+ * Great-circle distances on a spherical Earth, accurate to about 0.5%.
+ */
+public final class GeoMath {
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private GeoMath() {
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Addresses default to 0,0 when no coordinates were given
+    public static boolean hasPosition(Address address) {
+        return address != null && hasPosition(address.getLatitude(), address.getLongitude());
+    }
+
+    public static boolean hasPosition(double latitude, double longitude) {
+        return latitude != 0.0 || longitude != 0.0;
+    }
+}
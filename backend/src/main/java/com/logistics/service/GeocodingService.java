@@ -0,0 +1,281 @@
+package com.logistics.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import com.logistics.model.Address;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Offline geocoder backed by a gazetteer in the GeoNames postal code layout (tab separated:
+ * country, postal code, place, admin name, admin code, ..., latitude, longitude, accuracy).
+ * The bundled file holds ZIP3 prefixes of major US cities; point {@code app.gazetteerLocation}
+ * at a full GeoNames extract for finer results.
+ *
+ * <p>Coordinates sit in two float arrays. Postal codes go into a first-child/next-sibling trie
+ * kept in primitive arrays, so a code resolves to its longest known prefix. Cities resolve by
+ * name with or without their state. Resolved addresses are kept in an LRU cache.
+ */
+@Service
+public class GeocodingService {
+    private static final Logger logger = LoggerFactory.getLogger(GeocodingService.class);
+
+    private static final Map<String, String> COUNTRY_ALIASES = Map.of(
+            "USA", "US", "UNITED STATES", "US", "UNITED STATES OF AMERICA", "US");
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${app.gazetteerLocation:classpath:geo/gazetteer.tsv}")
+    private String gazetteerLocation;
+
+    @Value("${app.geocoderDefaultCountry:US}")
+    private String defaultCountry;
+
+    @Value("${app.geocoderCacheSize:10000}")
+    private int cacheSize;
+
+    private Gazetteer gazetteer = Gazetteer.EMPTY;
+    private Map<String, float[]> cache;
+
+    // Stands in for "not found" in the cache
+    private static final float[] MISS = new float[0];
+
+    @PostConstruct
+    void load() {
+        cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        Resource resource = resourceLoader.getResource(gazetteerLocation);
+        if (!resource.exists()) {
+            logger.warn("Gazetteer {} not found; addresses will not be geocoded", gazetteerLocation);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            gazetteer = Gazetteer.read(reader);
+            logger.info("Loaded {} gazetteer entries from {}", gazetteer.size(), gazetteerLocation);
+        } catch (IOException e) {
+            logger.warn("Could not read gazetteer {}: {}", gazetteerLocation, e.getMessage());
+        }
+    }
+
+    /**
+     * Fills in latitude and longitude if the address has none and can be resolved.
+     *
+     * @return true if the address has coordinates afterwards
+     */
+    public boolean fillCoordinates(Address address) {
+        if (address == null) {
+            return false;
+        }
+        if (GeoMath.hasPosition(address)) {
+            return true;
+        }
+        float[] position = resolve(address);
+        if (position == null) {
+            return false;
+        }
+        address.setLatitude(position[0]);
+        address.setLongitude(position[1]);
+        return true;
+    }
+
+    // {latitude, longitude}, or null if nothing in the gazetteer matches
+    public float[] resolve(Address address) {
+        String country = country(address.getCountry());
+        String key = String.join("|", country, normalize(address.getPostalCode()), normalize(address.getCity()),
+                normalize(address.getState()));
+
+        float[] cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached == null) {
+            int entry = gazetteer.find(country, address.getPostalCode(), address.getCity(), address.getState());
+            cached = entry >= 0 ? new float[] {gazetteer.latitudes[entry], gazetteer.longitudes[entry]} : MISS;
+            synchronized (cache) {
+                cache.put(key, cached);
+            }
+        }
+        return cached == MISS ? null : cached;
+    }
+
+    private String country(String country) {
+        if (country == null || country.isBlank()) {
+            return defaultCountry;
+        }
+        String upper = country.trim().toUpperCase(Locale.ROOT);
+        return COUNTRY_ALIASES.getOrDefault(upper, upper);
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    // Alphanumerics only, upper case, e.g. "sw1a 1aa" -> "SW1A1AA"
+    static String postalKey(String country, String postalCode) {
+        StringBuilder key = new StringBuilder(country.length() + 1 + postalCode.length()).append(country).append(':');
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = postalCode.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    static final class Gazetteer {
+        static final Gazetteer EMPTY = new Gazetteer();
+
+        float[] latitudes = new float[0];
+        float[] longitudes = new float[0];
+        int size;
+
+        // Trie nodes; node 0 is the root
+        char[] labels = new char[1];
+        int[] firstChild = {-1};
+        int[] nextSibling = {-1};
+        int[] entryAt = {-1};
+        int nodes = 1;
+
+        final Map<String, Integer> byCityState = new HashMap<>();
+        final Map<String, Integer> byCity = new HashMap<>();
+
+        static Gazetteer read(BufferedReader reader) throws IOException {
+            Gazetteer gazetteer = new Gazetteer();
+            gazetteer.latitudes = new float[1024];
+            gazetteer.longitudes = new float[1024];
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t", -1);
+                if (columns.length < 11) {
+                    continue;
+                }
+                try {
+                    gazetteer.add(columns[0].trim().toUpperCase(Locale.ROOT), columns[1], columns[2], columns[3], columns[4],
+                            Float.parseFloat(columns[9]), Float.parseFloat(columns[10]));
+                } catch (NumberFormatException e) {
+                    // Skip malformed rows
+                }
+            }
+            gazetteer.latitudes = Arrays.copyOf(gazetteer.latitudes, gazetteer.size);
+            gazetteer.longitudes = Arrays.copyOf(gazetteer.longitudes, gazetteer.size);
+            return gazetteer;
+        }
+
+        private void add(String country, String postalCode, String city, String stateName, String stateCode,
+                         float latitude, float longitude) {
+            if (size == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            int entry = size++;
+            latitudes[entry] = latitude;
+            longitudes[entry] = longitude;
+
+            if (!postalCode.isBlank()) {
+                int node = 0;
+                for (char c : postalKey(country, postalCode).toCharArray()) {
+                    node = child(node, c, true);
+                }
+                if (entryAt[node] < 0) {
+                    entryAt[node] = entry;
+                }
+            }
+            if (!city.isBlank()) {
+                String cityKey = country + '|' + normalize(city);
+                byCity.putIfAbsent(cityKey, entry);
+                // Addresses give the state either way, e.g. "NY" or "New York"
+                for (String state : new String[] {stateName, stateCode}) {
+                    if (!state.isBlank()) {
+                        byCityState.putIfAbsent(cityKey + '|' + normalize(state), entry);
+                    }
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Entry for the longest known prefix of the postal code, else the city in its state,
+         * else the first city of that name in the country; -1 if none.
+         */
+        int find(String country, String postalCode, String city, String state) {
+            if (postalCode != null && !postalCode.isBlank()) {
+                int best = -1;
+                int node = 0;
+                for (char c : postalKey(country, postalCode).toCharArray()) {
+                    node = child(node, c, false);
+                    if (node < 0) {
+                        break;
+                    }
+                    if (entryAt[node] >= 0) {
+                        best = entryAt[node];
+                    }
+                }
+                if (best >= 0) {
+                    return best;
+                }
+            }
+            if (city != null && !city.isBlank()) {
+                String cityKey = country + '|' + normalize(city);
+                Integer entry = state != null ? byCityState.get(cityKey + '|' + normalize(state)) : null;
+                if (entry == null) {
+                    entry = byCity.get(cityKey);
+                }
+                return entry != null ? entry : -1;
+            }
+            return -1;
+        }
+
+        private int child(int parent, char label, boolean create) {
+            for (int node = firstChild[parent]; node >= 0; node = nextSibling[node]) {
+                if (labels[node] == label) {
+                    return node;
+                }
+            }
+            if (!create) {
+                return -1;
+            }
+            if (nodes == labels.length) {
+                int capacity = nodes * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                entryAt = Arrays.copyOf(entryAt, capacity);
+            }
+            int node = nodes++;
+            labels[node] = label;
+            firstChild[node] = -1;
+            entryAt[node] = -1;
+            nextSibling[node] = firstChild[parent];
+            firstChild[parent] = node;
+            return node;
+        }
+    }
+}
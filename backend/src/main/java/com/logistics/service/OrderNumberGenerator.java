@@ -0,0 +1,20 @@
+package com.logistics.service;
+
+/**
+ * Source of order and tracking numbers. Implementations must never hand out the same
+ * number twice, across every running instance.
+ */
+public interface OrderNumberGenerator {
+
+    String nextOrderNumber();
+
+    String nextTrackingNumber();
+
+    /**
+     * Canonicalises a tracking number typed by a customer and verifies its check character.
+     *
+     * @param trackingNumber The tracking number as entered
+     * @return The stored form of the tracking number, or null if it cannot be valid
+     */
+    String normalizeTrackingNumber(String trackingNumber);
+}
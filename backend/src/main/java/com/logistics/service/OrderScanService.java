@@ -0,0 +1,319 @@
+package com.logistics.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.logistics.dto.BulkRowResult;
+import com.logistics.dto.ScanRequest;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.TrackingEvent;
+import com.logistics.model.User;
+import com.logistics.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Applies a batch of courier scans as one ordered bulk write. A scan older than the order's
+ * last update arrived late: its event is added to the timeline but the status is left alone,
+ * and its row reports {@code current: false}. Compare
+ * {@code orders.status.updates} and {@code orders.status.update.duration} by {@code path}
+ * to see throughput against the single-update endpoint.
+ */
+@Service
+public class OrderScanService {
+
+    // Only what counters, ETAs, notifications and results need; the timeline is never read
+    private static final String[] SNAPSHOT_FIELDS = {
+            "sellerId", "buyerId", "courierId", "status", "updatedAt", "orderNumber", "pricing.total", "shipping.trackingNumber",
+            "product.weight", "product.dimensions",
+            "shipping.courierService", "shipping.estimatedDelivery",
+            "shipping.from.city", "shipping.from.latitude", "shipping.from.longitude",
+            "shipping.to.city", "shipping.to.latitude", "shipping.to.longitude"
+    };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private CourierAssignmentService courierAssignmentService;
+
+    @Autowired
+    private EtaService etaService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.scanBatchMaxSize:500}")
+    private int maxBatchSize;
+
+    private Timer batchTimer;
+    private Counter batchUpdates;
+
+    @PostConstruct
+    void registerMetrics() {
+        batchTimer = Timer.builder("orders.status.update.duration").tag("path", "batch").register(meterRegistry);
+        batchUpdates = Counter.builder("orders.status.updates").tag("path", "batch").register(meterRegistry);
+    }
+
+    /**
+     * Applies every scan that names a known order and a valid status, in the order given.
+     *
+     * @param scans     The scans, each naming an order by ID or tracking number
+     * @param updatedBy Who performed the scans
+     * @return One result per scan, in the same order
+     */
+    public List<BulkRowResult> applyScans(List<ScanRequest> scans, String updatedBy) {
+        if (scans.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " scans are accepted per batch");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        BulkRowResult[] results = new BulkRowResult[scans.size()];
+        OrderStatus[] statuses = new OrderStatus[scans.size()];
+        Set<String> orderIds = new HashSet<>();
+        Set<String> trackingNumbers = new HashSet<>();
+        for (int i = 0; i < scans.size(); i++) {
+            ScanRequest scan = scans.get(i);
+            if (scan.getOrderId() == null && scan.getTrackingNumber() == null) {
+                results[i] = BulkRowResult.failed(i + 1, "orderId or trackingNumber is required");
+                continue;
+            }
+            try {
+                statuses[i] = OrderStatus.valueOf(scan.getStatus());
+            } catch (IllegalArgumentException e) {
+                results[i] = BulkRowResult.failed(i + 1, "Unknown status: " + scan.getStatus());
+                continue;
+            }
+            if (scan.getOrderId() != null) {
+                orderIds.add(scan.getOrderId());
+            } else {
+                trackingNumbers.add(scan.getTrackingNumber());
+            }
+        }
+
+        // One query loads a small snapshot of every order in the batch
+        Map<String, Order> byId = new HashMap<>();
+        Map<String, Order> byTrackingNumber = new HashMap<>();
+        for (Order order : findSnapshots(orderIds, trackingNumbers)) {
+            byId.put(order.getId(), order);
+            if (order.getShipping() != null && order.getShipping().getTrackingNumber() != null) {
+                byTrackingNumber.put(order.getShipping().getTrackingNumber(), order);
+            }
+        }
+
+        // Ordered, so several scans of one parcel land in the sequence they were given
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Order.class);
+        List<Integer> opItems = new ArrayList<>();
+        int[] firstOps = new int[scans.size()];
+        OrderStatsService.Transition[] itemTransitions = new OrderStatsService.Transition[scans.size()];
+        Map<String, OrderStatus> currentStatus = new HashMap<>();
+        Map<String, LocalDateTime> lastUpdated = new HashMap<>();
+        LocalDateTime[] timestamps = new LocalDateTime[scans.size()];
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < scans.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ScanRequest scan = scans.get(i);
+            Order order = scan.getOrderId() != null ? byId.get(scan.getOrderId()) : byTrackingNumber.get(scan.getTrackingNumber());
+            if (order == null) {
+                results[i] = BulkRowResult.failed(i + 1, "Order not found");
+                continue;
+            }
+
+            OrderStatus status = statuses[i];
+            TrackingEvent event = new TrackingEvent(status.name(),
+                    scan.getDescription() != null ? scan.getDescription() : status.getDescription(), scan.getLocation());
+            event.setUpdatedBy(updatedBy);
+            event.setTimestamp(scan.getTimestamp() != null ? scan.getTimestamp() : now);
+
+            LocalDateTime last = lastUpdated.containsKey(order.getId()) ? lastUpdated.get(order.getId()) : order.getUpdatedAt();
+            boolean current = last == null || !event.getTimestamp().isBefore(last);
+            firstOps[i] = opItems.size();
+            if (current) {
+                // Guarded too, in case a newer update lands between the snapshot and the write
+                Update update = new Update()
+                        .set("status", status)
+                        .set("updatedAt", event.getTimestamp())
+                        .push("timeline", event)
+                        .inc("version", 1);
+                LocalDateTime estimatedDelivery = etaService.reestimate(order.getShipping(), status, event.getTimestamp());
+                if (estimatedDelivery != null) {
+                    update.set("shipping.estimatedDelivery", estimatedDelivery);
+                    order.getShipping().setEstimatedDelivery(estimatedDelivery);
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(order.getId()).orOperator(
+                        Criteria.where("updatedAt").lte(event.getTimestamp()),
+                        Criteria.where("updatedAt").is(null))), update);
+                opItems.add(i);
+
+                OrderStatus previous = currentStatus.getOrDefault(order.getId(), order.getStatus());
+                itemTransitions[i] = new OrderStatsService.Transition(order, previous, status);
+                timestamps[i] = event.getTimestamp();
+                currentStatus.put(order.getId(), status);
+                lastUpdated.put(order.getId(), event.getTimestamp());
+            }
+            // Records the event alone for a late scan, or when the guarded update above did not match
+            bulk.updateOne(Query.query(Criteria.where("_id").is(order.getId()).and("timeline").ne(event)),
+                    new Update().push("timeline", event).inc("version", 1));
+            opItems.add(i);
+
+            results[i] = BulkRowResult.scanned(i + 1, order.getId(),
+                    order.getShipping() != null ? order.getShipping().getTrackingNumber() : null, current);
+        }
+
+        int failedOp = opItems.size();
+        String failure = null;
+        if (failedOp > 0) {
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                // An ordered bulk stops at the first error; nothing after it was applied
+                failedOp = e.getErrors().isEmpty() ? 0 : e.getErrors().get(0).getIndex();
+                failure = e.getErrors().isEmpty() ? e.getMessage() : e.getErrors().get(0).getMessage();
+            }
+        }
+
+        // Latest applied status change per order, to check against what is stored now
+        Map<String, Integer> lastTransition = new HashMap<>();
+        int applied = 0;
+        for (int op = 0; op < opItems.size(); op++) {
+            int item = opItems.get(op);
+            if (firstOps[item] != op) {
+                continue;
+            }
+            if (op < failedOp) {
+                applied++;
+                if (itemTransitions[item] != null) {
+                    lastTransition.put(itemTransitions[item].getOrder().getId(), item);
+                }
+            } else {
+                itemTransitions[item] = null;
+                results[item] = BulkRowResult.failed(item + 1, op == failedOp
+                        ? "Update failed: " + failure
+                        : "Not applied after an earlier failure in the batch");
+            }
+        }
+        Set<String> superseded = findSuperseded(lastTransition, statuses, timestamps);
+
+        List<OrderStatsService.Transition> transitions = new ArrayList<>();
+        for (int i = 0; i < scans.size(); i++) {
+            OrderStatsService.Transition transition = itemTransitions[i];
+            if (transition == null) {
+                continue;
+            }
+            if (superseded.contains(transition.getOrder().getId())) {
+                results[i] = BulkRowResult.scanned(i + 1, results[i].getOrderId(), results[i].getTrackingNumber(), false);
+            } else {
+                transitions.add(transition);
+            }
+        }
+
+        orderStatsService.recordTransitions(transitions);
+        courierAssignmentService.onTransitions(transitions);
+        notifyBuyers(transitions);
+
+        batchUpdates.increment(applied);
+        sample.stop(batchTimer);
+        return List.of(results);
+    }
+
+    private List<Order> findSnapshots(Set<String> orderIds, Set<String> trackingNumbers) {
+        List<Criteria> clauses = new ArrayList<>();
+        if (!orderIds.isEmpty()) {
+            clauses.add(Criteria.where("_id").in(orderIds));
+        }
+        if (!trackingNumbers.isEmpty()) {
+            clauses.add(Criteria.where("shipping.trackingNumber").in(trackingNumbers));
+        }
+        if (clauses.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(new Criteria().orOperator(clauses));
+        query.fields().include(SNAPSHOT_FIELDS);
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    /**
+     * The guarded status updates match nothing when a newer update landed after the snapshot, and
+     * the bulk result does not say which ones matched. Re-reads each order's status and timestamp
+     * and returns the orders whose last status change from this batch is not what is stored.
+     */
+    private Set<String> findSuperseded(Map<String, Integer> lastTransition, OrderStatus[] statuses, LocalDateTime[] timestamps) {
+        if (lastTransition.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("_id").in(lastTransition.keySet()));
+        query.fields().include("status", "updatedAt");
+        Set<String> superseded = new HashSet<>(lastTransition.keySet());
+        for (Order stored : mongoTemplate.find(query, Order.class)) {
+            int item = lastTransition.get(stored.getId());
+            // Dates are stored to the millisecond
+            if (stored.getStatus() == statuses[item] && stored.getUpdatedAt() != null
+                    && Objects.equals(stored.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS), timestamps[item].truncatedTo(ChronoUnit.MILLIS))) {
+                superseded.remove(stored.getId());
+            }
+        }
+        return superseded;
+    }
+
+    // One email per order with its final status, handed off in a single async call
+    private void notifyBuyers(List<OrderStatsService.Transition> transitions) {
+        Map<String, OrderStatsService.Transition> latest = new LinkedHashMap<>();
+        Set<String> buyerIds = new HashSet<>();
+        for (OrderStatsService.Transition transition : transitions) {
+            Order order = transition.getOrder();
+            latest.put(order.getId(), transition);
+            if (order.getBuyerId() != null) {
+                buyerIds.add(order.getBuyerId());
+            }
+        }
+        if (buyerIds.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> buyerEmails = new HashMap<>();
+        for (User buyer : userRepository.findIdAndEmailByIdIn(buyerIds)) {
+            buyerEmails.put(buyer.getId(), buyer.getEmail());
+        }
+        List<EmailService.Notification> notifications = new ArrayList<>();
+        for (OrderStatsService.Transition transition : latest.values()) {
+            String email = buyerEmails.get(transition.getOrder().getBuyerId());
+            if (email != null) {
+                notifications.add(new EmailService.Notification(email, transition.getOrder(), transition.getTo().toString()));
+            }
+        }
+        emailService.sendStatusUpdateEmails(notifications);
+    }
+}
@@ -0,0 +1,152 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.logistics.model.Order;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Rewrites orders stored in an older schema into {@link Order#SCHEMA_VERSION}, one throttled
+ * batch per tick. Progress is the data itself: migrated orders drop out of the
+ * {@code _v} index scan, so a restart simply carries on. Each rewrite is conditional on the
+ * order's version, so a concurrent update wins and the order is retried on a later tick. An
+ * order that cannot be read or written is counted in {@code orders.migration.failed} and left
+ * alone until the next restart, so it cannot hold up the orders behind it.
+ */
+@Service
+public class OrderSchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSchemaMigrator.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.orderMigrationEnabled:true}")
+    private boolean enabled;
+
+    @Value("${app.orderMigrationBatchSize:200}")
+    private int batchSize;
+
+    private final Order.ReadConverter reader = new Order.ReadConverter();
+    private final Order.WriteConverter writer = new Order.WriteConverter();
+
+    private final AtomicLong remaining = new AtomicLong(-1);
+    private final Set<Object> failedIds = new HashSet<>();
+    private Counter migrated;
+    private Counter conflicts;
+    private Counter failed;
+    private volatile boolean done;
+
+    @PostConstruct
+    void init() {
+        migrated = Counter.builder("orders.migration.migrated").register(meterRegistry);
+        conflicts = Counter.builder("orders.migration.conflicts").register(meterRegistry);
+        failed = Counter.builder("orders.migration.failed").register(meterRegistry);
+        Gauge.builder("orders.migration.remaining", remaining, AtomicLong::get).register(meterRegistry);
+        if (enabled) {
+            mongoTemplate.indexOps(Order.class).ensureIndex(new Index().on("_v", Sort.Direction.ASC).named("schema_version"));
+        }
+    }
+
+    // The delay between ticks is the throttle
+    @Scheduled(fixedDelayString = "${app.orderMigrationPauseMs:1000}", initialDelayString = "${app.orderMigrationPauseMs:1000}")
+    public void migrateBatch() {
+        if (!enabled || done) {
+            return;
+        }
+
+        Query pending = new Query(Criteria.where("_v").ne(Order.SCHEMA_VERSION));
+        if (remaining.get() < 0) {
+            remaining.set(mongoTemplate.count(pending, Order.class));
+            logger.info("{} orders to migrate to schema version {}", remaining.get(), Order.SCHEMA_VERSION);
+        }
+
+        Query next = failedIds.isEmpty() ? Query.of(pending)
+                : new Query(Criteria.where("_v").ne(Order.SCHEMA_VERSION).and("_id").nin(failedIds));
+        List<Document> batch = mongoTemplate.find(next.limit(batchSize), Document.class,
+                mongoTemplate.getCollectionName(Order.class));
+        if (batch.isEmpty()) {
+            done = true;
+            remaining.set(failedIds.size());
+            if (failedIds.isEmpty()) {
+                logger.info("Order schema migration complete");
+            } else {
+                logger.warn("Order schema migration complete except for {} orders that could not be migrated", failedIds.size());
+            }
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        List<Object> queued = new ArrayList<>(batch.size());
+        for (Document stored : batch) {
+            Document rewritten;
+            try {
+                rewritten = writer.convert(reader.convert(stored));
+            } catch (RuntimeException e) {
+                fail(stored.get("_id"), e.toString());
+                continue;
+            }
+            Object version = stored.get("version");
+            Criteria unchanged = Criteria.where("_id").is(stored.get("_id"));
+            unchanged = version != null ? unchanged.and("version").is(version) : unchanged.and("version").exists(false);
+
+            rewritten.put("_id", stored.get("_id"));
+            bulk.replaceOne(new Query(unchanged), rewritten);
+            queued.add(stored.get("_id"));
+        }
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        BulkWriteResult result;
+        List<BulkWriteError> errors = List.of();
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered, so everything but the reported replacements went through
+            result = e.getResult();
+            errors = e.getErrors();
+            for (BulkWriteError error : errors) {
+                fail(queued.get(error.getIndex()), error.getMessage());
+            }
+        }
+
+        long replaced = result.getModifiedCount();
+        migrated.increment(replaced);
+        conflicts.increment(queued.size() - errors.size() - replaced);
+        remaining.updateAndGet(n -> Math.max(0, n - replaced));
+    }
+
+    private void fail(Object orderId, String reason) {
+        failedIds.add(orderId);
+        failed.increment();
+        logger.warn("Order {} could not be migrated and is skipped: {}", orderId, reason);
+    }
+}
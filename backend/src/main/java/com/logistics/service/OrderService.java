@@ -1,20 +1,31 @@
 package com.logistics.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.logistics.dto.OrderCursor;
+import com.logistics.dto.OrderPage;
 import com.logistics.dto.OrderRequest;
+import com.logistics.dto.OrderSummary;
 import com.logistics.model.Order;
 import com.logistics.model.OrderStatus;
 import com.logistics.model.TrackingEvent;
+import com.logistics.model.User;
 import com.logistics.repository.OrderRepository;
 import com.logistics.repository.UserRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class OrderService {
 
@@ -27,12 +38,69 @@ public class OrderService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private ShippingQuoteService shippingQuoteService;
+
+    @Autowired
+    private CourierAssignmentService courierAssignmentService;
+
+    @Autowired
+    private EtaService etaService;
+
+    @Autowired
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.orderPageMaxSize:200}")
+    private int orderPageMaxSize;
+
+    private Timer singleUpdateTimer;
+    private Counter singleUpdates;
+
     // Removed unused fields:
     // @Autowired private CourierRepository courierRepository;
     // @Autowired private TrackingService trackingService;
 
+    @PostConstruct
+    void registerMetrics() {
+        singleUpdateTimer = Timer.builder("orders.status.update.duration").tag("path", "single").register(meterRegistry);
+        singleUpdates = Counter.builder("orders.status.updates").tag("path", "single").register(meterRegistry);
+    }
+
     public Order createOrder(OrderRequest orderRequest, String sellerId) {
+        Order order = buildOrder(orderRequest, sellerId);
+
+        // Set buyer
+        Optional<User> buyer = userRepository.findByEmail(orderRequest.getBuyerEmail());
+        buyer.ifPresent(b -> order.setBuyerId(b.getId()));
+
+        Order savedOrder = orderRepository.save(order);
+        orderStatsService.recordCreated(savedOrder);
+
+        // Send confirmation email
+        buyer.ifPresent(b -> emailService.sendOrderConfirmationEmail(b.getEmail(), savedOrder));
+
+        return savedOrder;
+    }
+
+    /**
+     * Builds a new pending order from a request without resolving the buyer or saving it.
+     *
+     * @param orderRequest The validated request
+     * @param sellerId     The seller creating the order
+     * @return The unsaved order
+     */
+    public Order buildOrder(OrderRequest orderRequest, String sellerId) {
         Order order = new Order();
+        order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
         order.setSellerId(sellerId);
 
         // Set product
@@ -40,67 +108,146 @@ public class OrderService {
         product.setName(orderRequest.getProductName());
         product.setCategory(orderRequest.getProductCategory());
         product.setWeight(orderRequest.getWeight());
+        product.setDimensions(orderRequest.getDimensions());
         product.setValue(orderRequest.getProductValue());
         order.setProduct(product);
 
-        // Set shipping
+        // Set shipping, resolving missing coordinates from the gazetteer
+        geocodingService.fillCoordinates(orderRequest.getFromAddress());
+        geocodingService.fillCoordinates(orderRequest.getToAddress());
         Order.Shipping shipping = new Order.Shipping();
         shipping.setFrom(orderRequest.getFromAddress());
         shipping.setTo(orderRequest.getToAddress());
         shipping.setCourierService(orderRequest.getCourierService());
-        shipping.setTrackingNumber("TRK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        shipping.setEstimatedDelivery(LocalDateTime.now().plusDays(3));
+        shipping.setTrackingNumber(orderNumberGenerator.nextTrackingNumber());
+        shipping.setEstimatedDelivery(etaService.estimateDelivery(shipping, LocalDateTime.now()));
         order.setShipping(shipping);
 
         // Set pricing
         Order.Pricing pricing = new Order.Pricing();
         pricing.setProductValue(orderRequest.getProductValue());
-        pricing.setShippingCost(calculateShippingCost(orderRequest.getWeight())); // removed unused courierService
+        pricing.setShippingCost(shippingQuoteService.priceFor(orderRequest.getCourierService(),
+                orderRequest.getWeight(), orderRequest.getDimensions()));
         pricing.setTotal(pricing.getProductValue() + pricing.getShippingCost());
         order.setPricing(pricing);
 
-        // Set buyer
-        userRepository.findByEmail(orderRequest.getBuyerEmail())
-                .ifPresent(buyer -> order.setBuyerId(buyer.getId()));
-
         // Initial tracking event
         TrackingEvent initialEvent = new TrackingEvent("PENDING", "Order created and pending confirmation", "Seller Location");
         order.getTimeline().add(initialEvent);
 
-        Order savedOrder = orderRepository.save(order);
-
-        // Send confirmation email
-        userRepository.findByEmail(orderRequest.getBuyerEmail())
-                .ifPresent(buyer -> emailService.sendOrderConfirmationEmail(buyer.getEmail(), savedOrder));
-
-        return savedOrder;
+        return order;
     }
 
     public Order updateOrderStatus(String orderId, OrderStatus newStatus, String location, String description, String updatedBy) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        order.setStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
-
-        TrackingEvent event = new TrackingEvent(newStatus.toString(), description, location);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TrackingEvent event = new TrackingEvent(newStatus.name(), description, location);
         event.setUpdatedBy(updatedBy);
-        order.getTimeline().add(event);
 
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder = applyStatusChange(orderId, newStatus, event);
 
-        userRepository.findById(order.getBuyerId())
+        userRepository.findById(updatedOrder.getBuyerId())
                 .ifPresent(buyer -> emailService.sendStatusUpdateEmail(buyer.getEmail(), updatedOrder, newStatus.toString()));
 
+        singleUpdates.increment();
+        sample.stop(singleUpdateTimer);
         return updatedOrder;
     }
 
-    public List<Order> getOrdersByUserId(String userId, String role) {
+    public OrderPage getOrderPage(String userId, String role, Collection<OrderStatus> statuses,
+                                  LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        String partyField = partyField(role);
+        if (partyField == null) {
+            return new OrderPage(List.of(), null);
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, orderPageMaxSize));
+        OrderCursor after = cursor != null && !cursor.isBlank() ? OrderCursor.decode(cursor) : null;
+
+        // Fetch one extra order to learn whether another page exists
+        List<OrderSummary> orders = orderRepository.findSummaryPageByParty(partyField, userId, statuses, from, to, after, pageSize + 1);
+        if (orders.size() <= pageSize) {
+            return new OrderPage(orders, null);
+        }
+
+        List<OrderSummary> page = orders.subList(0, pageSize);
+        OrderSummary last = page.get(pageSize - 1);
+        return new OrderPage(page, new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * The caller's orders whose pickup ("from") or delivery ("to") point lies within a radius.
+     */
+    public List<OrderSummary> findOrdersWithinRadius(String userId, String role, String end, double latitude,
+                                                     double longitude, double radiusKm,
+                                                     Collection<OrderStatus> statuses, int limit) {
+        String partyField = partyField(role);
+        if (partyField == null) {
+            return List.of();
+        }
+        checkEnd(end);
+        checkPosition(latitude, longitude);
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("radiusKm must be positive");
+        }
+        return orderRepository.findSummariesWithinRadius(end, latitude, longitude, radiusKm, partyField, userId,
+                statuses, clampLimit(limit));
+    }
+
+    /**
+     * The caller's orders whose pickup ("from") or delivery ("to") point lies inside a polygon.
+     *
+     * @param coordinates The polygon's outer ring as [longitude, latitude] pairs
+     */
+    public List<OrderSummary> findOrdersWithinZone(String userId, String role, String end, List<List<Double>> coordinates,
+                                                   Collection<OrderStatus> statuses, int limit) {
+        String partyField = partyField(role);
+        if (partyField == null) {
+            return List.of();
+        }
+        checkEnd(end);
+        List<double[]> ring = new ArrayList<>(coordinates.size());
+        for (List<Double> point : coordinates) {
+            if (point == null || point.size() != 2 || point.get(0) == null || point.get(1) == null) {
+                throw new IllegalArgumentException("Zone coordinates must be [longitude, latitude] pairs");
+            }
+            checkPosition(point.get(1), point.get(0));
+            ring.add(new double[] {point.get(0), point.get(1)});
+        }
+        return orderRepository.findSummariesWithinPolygon(end, ring, partyField, userId, statuses, clampLimit(limit));
+    }
+
+    // Confirmed orders waiting for pickup near a courier, nearest first
+    public List<OrderSummary> findNearestPickups(String courierId, double latitude, double longitude,
+                                                 double maxDistanceKm, int limit) {
+        checkPosition(latitude, longitude);
+        if (!(maxDistanceKm > 0)) {
+            throw new IllegalArgumentException("maxKm must be positive");
+        }
+        return orderRepository.findNearestPickups(latitude, longitude, maxDistanceKm, courierId, clampLimit(limit));
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, orderPageMaxSize));
+    }
+
+    private static void checkEnd(String end) {
+        if (!"from".equals(end) && !"to".equals(end)) {
+            throw new IllegalArgumentException("end must be 'from' or 'to'");
+        }
+    }
+
+    private static void checkPosition(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+    }
+
+    static String partyField(String role) {
         return switch (role.toUpperCase()) {
-            case "ROLE_SELLER" -> orderRepository.findBySellerIdOrderByCreatedAtDesc(userId);
-            case "ROLE_BUYER" -> orderRepository.findByBuyerIdOrderByCreatedAtDesc(userId);
-            case "ROLE_COURIER" -> orderRepository.findByCourierId(userId);
-            default -> List.of();
+            case "ROLE_SELLER" -> "sellerId";
+            case "ROLE_BUYER" -> "buyerId";
+            case "ROLE_COURIER" -> "courierId";
+            default -> null;
         };
     }
 
@@ -114,23 +261,35 @@ public class OrderService {
     }
 
     public Order flagOrder(String orderId, String reason, String flaggedBy) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        order.setStatus(OrderStatus.FLAGGED);
-        order.setUpdatedAt(LocalDateTime.now());
-
         TrackingEvent flagEvent = new TrackingEvent("FLAGGED", "Order flagged: " + reason, "Customer Service");
         flagEvent.setUpdatedBy(flaggedBy);
-        order.getTimeline().add(flagEvent);
 
-        return orderRepository.save(order);
+        return applyStatusChange(orderId, OrderStatus.FLAGGED, flagEvent);
     }
 
-    private double calculateShippingCost(double weight) {
-        // Simple fixed pricing, can be enhanced with courierService logic later
-        double baseRate = 10.0;
-        double perKgRate = 5.0;
-        return baseRate + (weight * perKgRate);
+    // Sets the status and appends the event in one atomic update, so concurrent scans never lose events
+    private Order applyStatusChange(String orderId, OrderStatus newStatus, TrackingEvent event) {
+        Order order = orderRepository.updateStatusAndAppendEvent(orderId, newStatus, event);
+        if (order == null) {
+            throw new RuntimeException("Order not found");
+        }
+        OrderStatus previousStatus = order.getStatus();
+
+        // The pre-image plus the change just applied is exactly what is now stored
+        order.setStatus(newStatus);
+        order.setUpdatedAt(event.getTimestamp());
+        order.getTimeline().add(event);
+        order.setVersion(order.getVersion() != null ? order.getVersion() + 1 : 1L);
+
+        LocalDateTime estimatedDelivery = etaService.reestimate(order.getShipping(), newStatus, event.getTimestamp());
+        if (estimatedDelivery != null && orderRepository.setEstimatedDelivery(orderId, estimatedDelivery)) {
+            order.getShipping().setEstimatedDelivery(estimatedDelivery);
+            order.setVersion(order.getVersion() + 1);
+        }
+
+        OrderStatsService.Transition transition = new OrderStatsService.Transition(order, previousStatus, newStatus);
+        orderStatsService.recordTransitions(List.of(transition));
+        courierAssignmentService.onTransitions(List.of(transition));
+        return order;
     }
 }
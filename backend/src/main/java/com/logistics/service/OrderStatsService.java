@@ -0,0 +1,419 @@
+package com.logistics.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.logistics.dto.OrderStats;
+import com.logistics.model.Order;
+import com.logistics.model.OrderCounter;
+import com.logistics.model.OrderStatus;
+import com.logistics.repository.OrderRepository;
+
+/**
+ * Dashboard headline numbers, read from per-party counter documents that are updated with
+ * {@code $inc} on every status transition, so a read costs the same however many orders a party has.
+ */
+@Service
+public class OrderStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatsService.class);
+
+    static final String[] PARTY_FIELDS = {"sellerId", "buyerId", "courierId"};
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final String LEASES = "job_leases";
+    private static final String REBUILD_LEASE = "order-counter-rebuild";
+    private static final String REBUILD_SNAPSHOT = "order_counters_rebuild";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${app.orderCounterRebuildBatchSize:1000}")
+    private int rebuildBatchSize;
+
+    @Value("${app.orderCounterRebuildLeaseMs:600000}")
+    private long rebuildLeaseMs;
+
+    private final String leaseOwner = UUID.randomUUID().toString();
+
+    public OrderStats getStats(String userId, String role) {
+        String partyField = OrderService.partyField(role);
+        if (partyField == null) {
+            return new OrderStats();
+        }
+
+        OrderCounter counter = mongoTemplate.findById(counterId(partyField, userId), OrderCounter.class);
+        if (counter == null) {
+            // No counter until the party's first order or the first rebuild, so aggregate instead
+            return orderRepository.aggregateStatsByParty(partyField, userId, LocalDate.now().atStartOfDay());
+        }
+        return toStats(counter, LocalDate.now());
+    }
+
+    public void recordCreated(Order order) {
+        recordTransition(order, null, order.getStatus());
+    }
+
+    public void recordCreated(Collection<Order> orders) {
+        List<Transition> transitions = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            transitions.add(new Transition(order, null, order.getStatus()));
+        }
+        recordTransitions(transitions);
+    }
+
+    public void recordTransition(Order order, OrderStatus from, OrderStatus to) {
+        recordTransitions(List.of(new Transition(order, from, to)));
+    }
+
+    /**
+     * Moves orders between status buckets on the counters of every party to them. Increments
+     * for the same counter are summed first, so the batch costs one upsert per affected
+     * counter, all sent in one unordered bulk write.
+     *
+     * @param transitions Status changes, with a null {@code from} for new orders
+     */
+    public void recordTransitions(Collection<Transition> transitions) {
+        Map<String, Map<String, Number>> increments = new HashMap<>();
+        String today = LocalDate.now().format(DAY);
+        for (Transition transition : transitions) {
+            if (transition.from == transition.to) {
+                continue;
+            }
+            Order order = transition.order;
+            double total = order.getPricing() != null ? order.getPricing().getTotal() : 0.0;
+            for (String partyField : PARTY_FIELDS) {
+                String partyId = partyId(order, partyField);
+                if (partyId == null) {
+                    continue;
+                }
+                Map<String, Number> inc = increments.computeIfAbsent(counterId(partyField, partyId), id -> new HashMap<>());
+                if (transition.from != null) {
+                    inc.merge("byStatus." + transition.from.name(), -1L, OrderStatsService::add);
+                }
+                inc.merge("byStatus." + transition.to.name(), 1L, OrderStatsService::add);
+                if (transition.to == OrderStatus.DELIVERED) {
+                    inc.merge("deliveredRevenue", total, OrderStatsService::add);
+                    inc.merge("deliveriesPerDay." + today, 1L, OrderStatsService::add);
+                } else if (transition.from == OrderStatus.DELIVERED) {
+                    inc.merge("deliveredRevenue", -total, OrderStatsService::add);
+                }
+            }
+        }
+        upsertIncrements(increments);
+    }
+
+    /**
+     * Adds orders that were just given a courier to that courier's counter, in their current
+     * status. Seller and buyer counters already hold them.
+     */
+    public void recordAssigned(Collection<Order> orders) {
+        Map<String, Map<String, Number>> increments = new HashMap<>();
+        for (Order order : orders) {
+            if (order.getCourierId() == null || order.getStatus() == null) {
+                continue;
+            }
+            Map<String, Number> inc = increments.computeIfAbsent(counterId("courierId", order.getCourierId()), id -> new HashMap<>());
+            inc.merge("byStatus." + order.getStatus().name(), 1L, OrderStatsService::add);
+            if (order.getStatus() == OrderStatus.DELIVERED && order.getPricing() != null) {
+                inc.merge("deliveredRevenue", order.getPricing().getTotal(), OrderStatsService::add);
+            }
+        }
+        upsertIncrements(increments);
+    }
+
+    private void upsertIncrements(Map<String, Map<String, Number>> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderCounter.class);
+        increments.forEach((counterId, inc) -> {
+            int separator = counterId.indexOf(':');
+            Update update = new Update()
+                    .setOnInsert("partyField", counterId.substring(0, separator))
+                    .setOnInsert("partyId", counterId.substring(separator + 1))
+                    .setOnInsert("syncedAt", LocalDateTime.now());
+            inc.forEach(update::inc);
+            bulk.upsert(Query.query(Criteria.where("_id").is(counterId)), update);
+        });
+        bulk.execute();
+    }
+
+    // Counts stay integral in the counter documents; only revenue is fractional
+    private static Number add(Number a, Number b) {
+        if (a instanceof Long && b instanceof Long) {
+            return a.longValue() + b.longValue();
+        }
+        return a.doubleValue() + b.doubleValue();
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (mongoTemplate.estimatedCount(OrderCounter.class) == 0 && mongoTemplate.estimatedCount(Order.class) > 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every counter from the orders collection. Orders are aggregated per party on
+     * the server and streamed back one batch of parties at a time. Each batch is reconciled
+     * rather than overwritten: the counters are copied when the rebuild starts, and each counter
+     * is moved by {@code $inc} of the difference between the recount and that copy, so
+     * transitions recorded while the rebuild runs are kept. Counters of parties that no longer
+     * have orders are taken back to what was recorded since the copy.
+     * A transition that lands between the copy and the recount reading its order is still
+     * counted twice; the next rebuild corrects it.
+     *
+     * <p>Only one instance rebuilds at a time, holding the {@code order-counter-rebuild} lease
+     * in {@code job_leases}. The lease is renewed after every batch and the rebuild stops if
+     * it is lost.
+     */
+    @Scheduled(cron = "${app.orderCounterRebuildCron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!acquireRebuildLease()) {
+            logger.info("Order counter rebuild already running on another instance");
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            String counters = mongoTemplate.getCollectionName(OrderCounter.class);
+            mongoTemplate.aggregate(Aggregation.newAggregation(stage("$out", REBUILD_SNAPSHOT)), counters, Document.class);
+
+            long parties = 0;
+            for (String partyField : PARTY_FIELDS) {
+                List<OrderCounter> batch = new ArrayList<>(rebuildBatchSize);
+                try (Stream<Document> stream = mongoTemplate.aggregateStream(recount(partyField),
+                        mongoTemplate.getCollectionName(Order.class), Document.class)) {
+                    for (Document party : (Iterable<Document>) stream::iterator) {
+                        batch.add(toCounter(partyField, party));
+                        if (batch.size() == rebuildBatchSize) {
+                            reconcile(batch);
+                            parties += batch.size();
+                            batch.clear();
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    reconcile(batch);
+                    parties += batch.size();
+                }
+            }
+
+            // Whatever is left in the copy belongs to parties that no longer have orders
+            long emptied = 0;
+            List<OrderCounter> batch = new ArrayList<>(rebuildBatchSize);
+            try (Stream<OrderCounter> stream = mongoTemplate.stream(new Query().cursorBatchSize(rebuildBatchSize),
+                    OrderCounter.class, REBUILD_SNAPSHOT)) {
+                for (OrderCounter previous : (Iterable<OrderCounter>) stream::iterator) {
+                    OrderCounter empty = new OrderCounter();
+                    empty.setId(previous.getId());
+                    empty.setPartyField(previous.getPartyField());
+                    empty.setPartyId(previous.getPartyId());
+                    batch.add(empty);
+                    if (batch.size() == rebuildBatchSize) {
+                        reconcile(batch);
+                        emptied += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                reconcile(batch);
+                emptied += batch.size();
+            }
+
+            logger.info("Rebuilt {} order counters in {} ms ({} without orders)",
+                    parties, System.currentTimeMillis() - started, emptied);
+        } finally {
+            mongoTemplate.dropCollection(REBUILD_SNAPSHOT);
+            releaseRebuildLease();
+        }
+    }
+
+    // One document per party: {_id: partyId, parts: [{status, day, count, revenue}]}, day only for deliveries
+    private Aggregation recount(String partyField) {
+        Document deliveredDay = new Document("$cond", Arrays.asList(
+                new Document("$eq", List.of("$status", OrderStatus.DELIVERED.name())),
+                new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", "$updatedAt")
+                        .append("timezone", ZoneId.systemDefault().getId())),
+                null));
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(partyField).ne(null).and("status").ne(null)),
+                stage("$group", new Document("_id", new Document("party", "$" + partyField).append("status", "$status")
+                                .append("day", deliveredDay))
+                        .append("count", new Document("$sum", 1L))
+                        .append("revenue", new Document("$sum", new Document("$ifNull", List.of("$pricing.total", 0.0))))),
+                stage("$group", new Document("_id", "$_id.party")
+                        .append("parts", new Document("$push", new Document("status", "$_id.status")
+                                .append("day", "$_id.day").append("count", "$count").append("revenue", "$revenue")))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(rebuildBatchSize).build());
+    }
+
+    private static AggregationOperation stage(String operator, Object body) {
+        return context -> new Document(operator, body);
+    }
+
+    private static OrderCounter toCounter(String partyField, Document party) {
+        OrderCounter counter = new OrderCounter();
+        counter.setPartyField(partyField);
+        counter.setPartyId(party.get("_id").toString());
+        counter.setId(counterId(partyField, counter.getPartyId()));
+        for (Document part : party.getList("parts", Document.class)) {
+            String status = part.getString("status");
+            long count = ((Number) part.get("count")).longValue();
+            counter.getByStatus().merge(status, count, Long::sum);
+            if (OrderStatus.DELIVERED.name().equals(status)) {
+                counter.setDeliveredRevenue(counter.getDeliveredRevenue() + ((Number) part.get("revenue")).doubleValue());
+                if (part.getString("day") != null) {
+                    counter.getDeliveriesPerDay().merge(part.getString("day"), count, Long::sum);
+                }
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Moves each counter by the difference between its recount and its value when the rebuild
+     * started, then drops the reconciled counters from that copy.
+     */
+    private void reconcile(List<OrderCounter> recounted) {
+        List<String> ids = new ArrayList<>(recounted.size());
+        recounted.forEach(counter -> ids.add(counter.getId()));
+        Map<String, OrderCounter> previous = new HashMap<>();
+        for (OrderCounter counter : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), OrderCounter.class, REBUILD_SNAPSHOT)) {
+            previous.put(counter.getId(), counter);
+        }
+
+        LocalDateTime syncedAt = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderCounter.class);
+        for (OrderCounter counter : recounted) {
+            OrderCounter before = previous.getOrDefault(counter.getId(), new OrderCounter());
+            Update update = new Update()
+                    .setOnInsert("partyField", counter.getPartyField())
+                    .setOnInsert("partyId", counter.getPartyId())
+                    .set("syncedAt", syncedAt);
+            difference(update, "byStatus.", counter.getByStatus(), before.getByStatus());
+            difference(update, "deliveriesPerDay.", counter.getDeliveriesPerDay(), before.getDeliveriesPerDay());
+            double revenue = counter.getDeliveredRevenue() - before.getDeliveredRevenue();
+            if (revenue != 0.0) {
+                update.inc("deliveredRevenue", revenue);
+            }
+            bulk.upsert(Query.query(Criteria.where("_id").is(counter.getId())), update);
+        }
+        bulk.execute();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), REBUILD_SNAPSHOT);
+
+        if (!renewRebuildLease()) {
+            throw new IllegalStateException("Lost the order counter rebuild lease");
+        }
+    }
+
+    private static void difference(Update update, String prefix, Map<String, Long> recounted, Map<String, Long> before) {
+        Map<String, Long> delta = new HashMap<>(recounted);
+        before.forEach((key, count) -> delta.merge(key, -count, Long::sum));
+        delta.forEach((key, count) -> {
+            if (count != 0L) {
+                update.inc(prefix + key, count);
+            }
+        });
+    }
+
+    // Claims the rebuild lease if it is free, expired or already ours; a held lease fails the upsert on _id
+    private boolean acquireRebuildLease() {
+        long now = System.currentTimeMillis();
+        Query query = Query.query(Criteria.where("_id").is(REBUILD_LEASE).orOperator(
+                Criteria.where("expiresAt").lt(new Date(now)),
+                Criteria.where("owner").is(leaseOwner)));
+        try {
+            mongoTemplate.upsert(query, new Update().set("owner", leaseOwner).set("expiresAt", new Date(now + rebuildLeaseMs)), LEASES);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean renewRebuildLease() {
+        Query query = Query.query(Criteria.where("_id").is(REBUILD_LEASE).and("owner").is(leaseOwner));
+        return mongoTemplate.updateFirst(query, new Update().set("expiresAt", new Date(System.currentTimeMillis() + rebuildLeaseMs)), LEASES)
+                .getMatchedCount() > 0;
+    }
+
+    private void releaseRebuildLease() {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(REBUILD_LEASE).and("owner").is(leaseOwner)), LEASES);
+    }
+
+    private static OrderStats toStats(OrderCounter counter, LocalDate today) {
+        OrderStats stats = new OrderStats();
+        counter.getByStatus().forEach((status, count) -> {
+            if (count != null && count > 0) {
+                stats.add(OrderStatus.valueOf(status), count);
+            }
+        });
+        stats.setDeliveredRevenue(counter.getDeliveredRevenue());
+        stats.setDeliveredToday(counter.getDeliveriesPerDay().getOrDefault(today.format(DAY), 0L));
+        return stats;
+    }
+
+    public static final class Transition {
+        final Order order;
+        final OrderStatus from;
+        final OrderStatus to;
+
+        public Transition(Order order, OrderStatus from, OrderStatus to) {
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Order getOrder() { return order; }
+        public OrderStatus getFrom() { return from; }
+        public OrderStatus getTo() { return to; }
+    }
+
+    static String counterId(String partyField, String partyId) {
+        return partyField + ':' + partyId;
+    }
+
+    static String partyId(Order order, String partyField) {
+        return switch (partyField) {
+            case "sellerId" -> order.getSellerId();
+            case "buyerId" -> order.getBuyerId();
+            case "courierId" -> order.getCourierId();
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,324 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.logistics.model.Address;
+import com.logistics.model.Order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Groups confirmed orders into pickup runs, so a seller shipping many parcels from one place
+ * is visited once rather than once per parcel. An order joins an open run for the same courier
+ * service when its pickup lies within {@code app.consolidationRadiusKm} of the run's first
+ * pickup, or, for pickups without coordinates, when the address matches. A run stops taking
+ * orders once its weight, volume or order limit would be exceeded, and closes
+ * {@code app.consolidationWindowMinutes} after it opened; until then later orders keep joining
+ * the courier already collecting there. The configured limits are lowered per courier service
+ * by {@link #limit}, so a full run still fits one vehicle.
+ *
+ * <p>Pickups are hashed into cells about the join radius wide, and each cell remembers only
+ * its newest run, so grouping is a single pass with constant work per order. Runs live in
+ * memory and are only used from the assignment thread.
+ */
+@Component
+public class PickupConsolidator {
+
+    @Value("${app.consolidationEnabled:true}")
+    private boolean enabled;
+
+    @Value("${app.consolidationRadiusKm:0.5}")
+    private double radiusKm;
+
+    @Value("${app.consolidationWindowMinutes:120}")
+    private long windowMinutes;
+
+    @Value("${app.consolidationMaxWeightKg:500}")
+    private double maxWeightKg;
+
+    @Value("${app.consolidationMaxVolumeM3:4}")
+    private double maxVolumeM3;
+
+    @Value("${app.consolidationMaxOrders:300}")
+    private int maxOrders;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final AtomicInteger openRuns = new AtomicInteger();
+    private double cellDegrees;
+    private volatile Map<String, Limits> laneLimits = Map.of();
+    private volatile Limits defaultLimits;
+
+    private Counter opened;
+    private Counter joined;
+
+    @PostConstruct
+    void init() {
+        cellDegrees = radiusKm / GeoMath.KM_PER_DEGREE;
+        defaultLimits = new Limits(maxWeightKg, maxVolumeM3, maxOrders);
+        opened = Counter.builder("orders.consolidation.runs").register(meterRegistry);
+        joined = Counter.builder("orders.consolidation.joined").register(meterRegistry);
+        Gauge.builder("orders.consolidation.open", openRuns, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Places each order in a run, joining an open run where it fits and opening one otherwise.
+     *
+     * @param canJoin Whether an order may join a run whose courier is already chosen
+     * @return The runs that received orders, each listing them in {@link PickupRun#getOrders()}
+     */
+    public List<PickupRun> consolidate(List<Order> orders, BiPredicate<PickupRun, Order> canJoin) {
+        long now = System.currentTimeMillis();
+        expire(now);
+
+        List<PickupRun> touched = new ArrayList<>();
+        for (Order order : orders) {
+            double weightKg = CourierLoadBalancer.weightKg(order);
+            double volumeM3 = CourierLoadBalancer.volumeM3(order);
+
+            PickupRun run = enabled ? find(order, weightKg, volumeM3, canJoin) : null;
+            if (run == null) {
+                run = open(order, now);
+            } else {
+                joined.increment();
+            }
+            if (run.orders.isEmpty()) {
+                touched.add(run);
+            }
+            run.orders.add(order);
+            run.weightKg += weightKg;
+            run.volumeM3 += volumeM3;
+            run.count++;
+        }
+        return touched;
+    }
+
+    /**
+     * Caps new runs so a full one can still be carried by a single courier. Limits above the
+     * configured ones are ignored.
+     *
+     * @param byLane   Limits for orders choosing each courier service, keyed as lanes are
+     * @param fallback Limits for orders with no or an unknown courier service
+     */
+    void limit(Map<String, Limits> byLane, Limits fallback) {
+        Map<String, Limits> capped = new HashMap<>(byLane.size() * 2);
+        byLane.forEach((lane, limits) -> capped.put(lane, cap(limits)));
+        laneLimits = capped;
+        defaultLimits = cap(fallback);
+    }
+
+    private Limits cap(Limits limits) {
+        return new Limits(Math.min(limits.weightKg, maxWeightKg), Math.min(limits.volumeM3, maxVolumeM3),
+                Math.min(limits.orders, maxOrders));
+    }
+
+    // The run's orders have been assigned to this courier; later orders that join go to them too
+    void assigned(PickupRun run, String courierId) {
+        run.courierId = courierId;
+        run.orders.clear();
+    }
+
+    // No courier could take the run as a whole, so it stops taking orders
+    void discard(PickupRun run) {
+        Lane lane = lanes.get(run.lane);
+        if (lane != null && lane.remove(run)) {
+            openRuns.decrementAndGet();
+        }
+        run.orders.clear();
+    }
+
+    private PickupRun find(Order order, double weightKg, double volumeM3, BiPredicate<PickupRun, Order> canJoin) {
+        Lane lane = lanes.get(laneKey(order));
+        if (lane == null) {
+            return null;
+        }
+        Address from = order.getShipping() != null ? order.getShipping().getFrom() : null;
+        if (!GeoMath.hasPosition(from)) {
+            String addressKey = addressKey(from);
+            PickupRun run = addressKey != null ? lane.byAddress.get(addressKey) : null;
+            return run != null && fits(run, weightKg, volumeM3) && joinable(run, order, canJoin) ? run : null;
+        }
+
+        int row = row(from.getLatitude());
+        int column = column(from.getLongitude());
+        PickupRun best = null;
+        double bestKm = radiusKm;
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = column - 1; c <= column + 1; c++) {
+                PickupRun run = lane.byCell.get(cellKey(r, c));
+                if (run == null || !fits(run, weightKg, volumeM3)) {
+                    continue;
+                }
+                double km = GeoMath.distanceKm(from.getLatitude(), from.getLongitude(), run.latitude, run.longitude);
+                if (km <= bestKm && joinable(run, order, canJoin)) {
+                    best = run;
+                    bestKm = km;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean joinable(PickupRun run, Order order, BiPredicate<PickupRun, Order> canJoin) {
+        return run.courierId == null || canJoin.test(run, order);
+    }
+
+    private static boolean fits(PickupRun run, double weightKg, double volumeM3) {
+        Limits limits = run.limits;
+        return run.count < limits.orders && run.weightKg + weightKg <= limits.weightKg
+                && run.volumeM3 + volumeM3 <= limits.volumeM3;
+    }
+
+    // Opens a run at the order's pickup; with consolidation off, runs are never registered for joining
+    private PickupRun open(Order order, long now) {
+        Address from = order.getShipping() != null ? order.getShipping().getFrom() : null;
+        String laneKey = laneKey(order);
+        PickupRun run = new PickupRun(new ObjectId().toHexString(), laneKey, now + windowMinutes * 60_000,
+                laneLimits.getOrDefault(laneKey, defaultLimits));
+        opened.increment();
+        if (!enabled) {
+            return run;
+        }
+
+        Lane lane = lanes.computeIfAbsent(run.lane, key -> new Lane());
+        PickupRun replaced;
+        if (GeoMath.hasPosition(from)) {
+            run.latitude = from.getLatitude();
+            run.longitude = from.getLongitude();
+            run.cell = cellKey(row(run.latitude), column(run.longitude));
+            replaced = lane.byCell.put(run.cell, run);
+        } else {
+            run.address = addressKey(from);
+            if (run.address == null) {
+                return run;
+            }
+            replaced = lane.byAddress.put(run.address, run);
+        }
+        if (replaced == null) {
+            openRuns.incrementAndGet();
+        }
+        return run;
+    }
+
+    private void expire(long now) {
+        for (Iterator<Lane> lanes = this.lanes.values().iterator(); lanes.hasNext(); ) {
+            Lane lane = lanes.next();
+            int before = lane.size();
+            lane.byCell.values().removeIf(run -> run.closesAt <= now);
+            lane.byAddress.values().removeIf(run -> run.closesAt <= now);
+            openRuns.addAndGet(lane.size() - before);
+            if (lane.size() == 0) {
+                lanes.remove();
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    // Orders only share a run with orders for the same courier service
+    private static String laneKey(Order order) {
+        String service = order.getShipping() != null ? order.getShipping().getCourierService() : null;
+        return service != null ? ShippingQuoteService.key(service) : "";
+    }
+
+    private static String addressKey(Address address) {
+        if (address == null || address.getStreet() == null || address.getStreet().isBlank()) {
+            return null;
+        }
+        return String.join("|", normalize(address.getStreet()), normalize(address.getPostalCode()),
+                normalize(address.getCity()));
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static final class Lane {
+        final Map<Long, PickupRun> byCell = new HashMap<>();
+        final Map<String, PickupRun> byAddress = new HashMap<>();
+
+        int size() {
+            return byCell.size() + byAddress.size();
+        }
+
+        boolean remove(PickupRun run) {
+            return run.address != null ? byAddress.remove(run.address, run) : byCell.remove(run.cell, run);
+        }
+    }
+
+    /**
+     * The most one run may hold.
+     */
+    static final class Limits {
+        final double weightKg;
+        final double volumeM3;
+        final int orders;
+
+        Limits(double weightKg, double volumeM3, int orders) {
+            this.weightKg = weightKg;
+            this.volumeM3 = volumeM3;
+            this.orders = orders;
+        }
+    }
+
+    /**
+     * One courier visit collecting every order in it.
+     */
+    public static final class PickupRun {
+        private final String id;
+        private final String lane;
+        private final long closesAt;
+        private final Limits limits;
+        private final List<Order> orders = new ArrayList<>();
+        private String courierId;
+        private double latitude;
+        private double longitude;
+        private long cell;
+        private String address;
+        private double weightKg;
+        private double volumeM3;
+        private int count;
+
+        private PickupRun(String id, String lane, long closesAt, Limits limits) {
+            this.id = id;
+            this.lane = lane;
+            this.closesAt = closesAt;
+            this.limits = limits;
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public String getCourierId() { return courierId; }
+        public List<Order> getOrders() { return orders; } // added since the last assignment
+        public double getWeightKg() { return weightKg; }
+        public double getVolumeM3() { return volumeM3; }
+        public int getCount() { return count; }
+    }
+}
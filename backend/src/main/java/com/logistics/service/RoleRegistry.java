@@ -0,0 +1,76 @@
+package com.logistics.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Component;
+
+import com.logistics.model.ERole;
+import com.logistics.model.Role;
+import com.logistics.model.User;
+import com.logistics.repository.RoleRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the role documents in memory so signups do not query the roles collection.
+ * Roles created after startup are picked up on first use.
+ */
+@Component
+public class RoleRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<ERole, Role> roles = new ConcurrentHashMap<>();
+
+    /**
+     * Makes role names unique in the roles collection. An {@code @Indexed(unique = true)} on
+     * {@link Role#getName()} was also applied to the roles embedded in every user, making
+     * {@code roles.name} unique across users; that index is dropped where it still exists.
+     */
+    @PostConstruct
+    void ensureIndexes() {
+        mongoTemplate.indexOps(Role.class).ensureIndex(new Index().on("name", Sort.Direction.ASC).unique().named("name"));
+        for (IndexInfo index : mongoTemplate.indexOps(User.class).getIndexInfo()) {
+            if (index.isUnique() && index.isIndexForFields(List.of("roles.name"))) {
+                mongoTemplate.indexOps(User.class).dropIndex(index.getName());
+                logger.info("Dropped unique index {} on users", index.getName());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        for (Role role : roleRepository.findAll()) {
+            if (role.getName() != null) {
+                roles.put(role.getName(), role);
+            }
+        }
+        logger.info("Preloaded {} roles", roles.size());
+    }
+
+    public Role get(ERole name) {
+        Role role = roles.get(name);
+        if (role == null) {
+            role = roleRepository.findByName(name)
+                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+            roles.put(name, role);
+        }
+        return role;
+    }
+}
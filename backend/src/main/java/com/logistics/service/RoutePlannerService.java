@@ -0,0 +1,424 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.logistics.dto.RoutePlan;
+import com.logistics.model.Address;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.User;
+import com.logistics.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Orders a courier's open stops into a short route: nearest-neighbour construction, then
+ * 2-opt and Or-opt moves until neither improves the route or {@code app.routePlanBudgetMs}
+ * runs out. The route is an open path from the courier's position, or from the stop furthest
+ * from the rest when the position is unknown.
+ *
+ * <p>Plans are cached per courier until the set of stops or the start changes. A scheduled
+ * pass re-plans every courier with open orders on a dedicated fork-join pool, so the endpoint
+ * usually answers from the cache.
+ */
+@Service
+public class RoutePlannerService {
+    private static final Logger logger = LoggerFactory.getLogger(RoutePlannerService.class);
+
+    private static final List<OrderStatus> ROUTED = List.of(
+            OrderStatus.CONFIRMED, OrderStatus.SHIPPED, OrderStatus.IN_TRANSIT, OrderStatus.OUT_FOR_DELIVERY);
+
+    // Moves must save more than this many km, so float rounding cannot make them cycle
+    private static final float EPSILON = 1e-4f;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.routePlanBudgetMs:250}")
+    private long budgetMs;
+
+    @Value("${app.routePlannerParallelism:0}")
+    private int parallelism;
+
+    @Value("${app.routePlanMaxStops:2000}")
+    private int maxStops;
+
+    private final Map<String, CachedPlan> plans = new ConcurrentHashMap<>();
+    private ForkJoinPool pool;
+    private Timer planTimer;
+    private Counter cacheHits;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("route-planner-" + counter.incrementAndGet());
+                    return thread;
+                }, null, false);
+
+        planTimer = Timer.builder("routes.plan.duration").register(meterRegistry);
+        cacheHits = Counter.builder("routes.plan.cache.hits").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * The courier's open orders in visiting order.
+     *
+     * @param latitude  Where the courier is now, or null to start from their profile address
+     * @param longitude As above
+     */
+    public RoutePlan planRoute(String courierId, Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) {
+            User courier = userRepository.findById(courierId).orElse(null);
+            Address home = courier != null && courier.getProfile() != null ? courier.getProfile().getAddress() : null;
+            if (GeoMath.hasPosition(home)) {
+                latitude = home.getLatitude();
+                longitude = home.getLongitude();
+            }
+        } else if (latitude == null || longitude == null
+                || latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("lat and lng must be given together and within range");
+        }
+
+        List<Waypoint> waypoints = new ArrayList<>();
+        List<String> unrouted = new ArrayList<>();
+        loadWaypoints(courierId, waypoints, unrouted);
+
+        long signature = signature(waypoints, latitude, longitude);
+        CachedPlan cached = plans.get(courierId);
+        if (cached != null && cached.signature == signature) {
+            cacheHits.increment();
+            return cached.plan;
+        }
+
+        long started = System.nanoTime();
+        RoutePlan plan = plan(courierId, waypoints, unrouted, latitude, longitude, started);
+        planTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        plans.put(courierId, new CachedPlan(signature, plan));
+        return plan;
+    }
+
+    /**
+     * Plans several couriers' routes at once on the planner pool.
+     */
+    public Map<String, RoutePlan> planRoutes(Collection<String> courierIds) {
+        return pool.submit(() -> courierIds.parallelStream().distinct()
+                .collect(Collectors.toMap(id -> id, id -> planRoute(id, null, null)))).join();
+    }
+
+    // Keeps cached plans warm and drops those of couriers with nothing left to deliver
+    @Scheduled(fixedDelayString = "${app.routePlanRefreshMs:300000}", initialDelayString = "${app.routePlanRefreshMs:300000}")
+    public void refreshPlans() {
+        long started = System.currentTimeMillis();
+        List<String> courierIds = mongoTemplate.findDistinct(
+                new Query(Criteria.where("courierId").ne(null).and("status").in(ROUTED)),
+                "courierId", Order.class, String.class);
+        plans.keySet().retainAll(new HashSet<>(courierIds));
+        planRoutes(courierIds);
+        logger.info("Planned routes for {} couriers in {} ms", courierIds.size(), System.currentTimeMillis() - started);
+    }
+
+    // Orders awaiting pickup are visited at their origin, the rest at their destination
+    private void loadWaypoints(String courierId, List<Waypoint> waypoints, List<String> unrouted) {
+        Query query = new Query(Criteria.where("courierId").is(courierId).and("status").in(ROUTED));
+        query.fields().include("orderNumber", "status",
+                "shipping.from.city", "shipping.from.latitude", "shipping.from.longitude",
+                "shipping.to.city", "shipping.to.latitude", "shipping.to.longitude");
+        for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Order.class))) {
+            String orderId = String.valueOf(document.get("_id"));
+            boolean pickup = OrderStatus.CONFIRMED.name().equals(document.getString("status"));
+            Document shipping = document.get("shipping", Document.class);
+            Document address = shipping != null ? shipping.get(pickup ? "from" : "to", Document.class) : null;
+            if (address == null || !(address.get("latitude") instanceof Number lat) || !(address.get("longitude") instanceof Number lon)
+                    || !GeoMath.hasPosition(lat.doubleValue(), lon.doubleValue()) || waypoints.size() == maxStops) {
+                unrouted.add(orderId);
+                continue;
+            }
+            waypoints.add(new Waypoint(orderId, document.getString("orderNumber"), pickup ? "PICKUP" : "DELIVERY",
+                    address.getString("city"), lat.doubleValue(), lon.doubleValue()));
+        }
+        // A stable order keeps ties in the construction, and so the plan, deterministic
+        waypoints.sort(Comparator.comparing(waypoint -> waypoint.orderId));
+    }
+
+    // Changes when a stop is added, removed or switches from pickup to delivery, or the start moves ~100 m
+    private static long signature(List<Waypoint> waypoints, Double latitude, Double longitude) {
+        long signature = 17;
+        for (Waypoint waypoint : waypoints) {
+            signature = 31 * signature + waypoint.orderId.hashCode();
+            signature = 31 * signature + waypoint.type.hashCode();
+        }
+        if (latitude != null) {
+            signature = 31 * signature + Math.round(latitude * 1000);
+            signature = 31 * signature + Math.round(longitude * 1000);
+        }
+        return signature;
+    }
+
+    private RoutePlan plan(String courierId, List<Waypoint> waypoints, List<String> unrouted,
+                           Double latitude, Double longitude, long started) {
+        if (waypoints.isEmpty()) {
+            return new RoutePlan(courierId, latitude, longitude, List.of(), unrouted, 0.0, 0);
+        }
+
+        // Node 0 is the courier's position when known
+        int offset = latitude != null ? 1 : 0;
+        int size = waypoints.size() + offset;
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        if (offset == 1) {
+            latitudes[0] = latitude;
+            longitudes[0] = longitude;
+        }
+        for (int i = 0; i < waypoints.size(); i++) {
+            latitudes[i + offset] = waypoints.get(i).latitude;
+            longitudes[i + offset] = waypoints.get(i).longitude;
+        }
+
+        float[][] distances = distances(latitudes, longitudes);
+        int first = offset == 1 ? 0 : outermost(distances);
+        int[] tour = optimize(distances, first, started + TimeUnit.MILLISECONDS.toNanos(budgetMs));
+
+        List<RoutePlan.Stop> stops = new ArrayList<>(waypoints.size());
+        double totalKm = 0.0;
+        for (int i = offset; i < size; i++) {
+            Waypoint waypoint = waypoints.get(tour[i] - offset);
+            double legKm = i > 0 ? distances[tour[i - 1]][tour[i]] : 0.0;
+            totalKm += legKm;
+            stops.add(new RoutePlan.Stop(waypoint.orderId, waypoint.orderNumber, waypoint.type, waypoint.city,
+                    waypoint.latitude, waypoint.longitude, legKm));
+        }
+        return new RoutePlan(courierId, latitude, longitude, stops, unrouted, totalKm,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    static float[][] distances(double[] latitudes, double[] longitudes) {
+        int size = latitudes.length;
+        float[][] distances = new float[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                float distance = (float) GeoMath.distanceKm(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+                distances[i][j] = distance;
+                distances[j][i] = distance;
+            }
+        }
+        return distances;
+    }
+
+    // Without a known start, begin at the stop with the greatest total distance to the others
+    private static int outermost(float[][] distances) {
+        int best = 0;
+        double bestTotal = -1;
+        for (int i = 0; i < distances.length; i++) {
+            double total = 0;
+            for (float distance : distances[i]) {
+                total += distance;
+            }
+            if (total > bestTotal) {
+                best = i;
+                bestTotal = total;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * An open path over all nodes starting at {@code first}, which stays in place.
+     *
+     * @param deadline {@link System#nanoTime()} after which improvement stops
+     */
+    static int[] optimize(float[][] distances, int first, long deadline) {
+        int[] tour = nearestNeighbour(distances, first);
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = twoOpt(distances, tour, deadline);
+            improved |= orOpt(distances, tour, deadline);
+        }
+        return tour;
+    }
+
+    static double length(float[][] distances, int[] tour) {
+        double length = 0.0;
+        for (int i = 1; i < tour.length; i++) {
+            length += distances[tour[i - 1]][tour[i]];
+        }
+        return length;
+    }
+
+    static int[] nearestNeighbour(float[][] distances, int first) {
+        int size = distances.length;
+        int[] tour = new int[size];
+        boolean[] visited = new boolean[size];
+        tour[0] = first;
+        visited[first] = true;
+        for (int i = 1; i < size; i++) {
+            float[] row = distances[tour[i - 1]];
+            int nearest = -1;
+            for (int candidate = 0; candidate < size; candidate++) {
+                if (!visited[candidate] && (nearest < 0 || row[candidate] < row[nearest])) {
+                    nearest = candidate;
+                }
+            }
+            tour[i] = nearest;
+            visited[nearest] = true;
+        }
+        return tour;
+    }
+
+    // Reverses tour[i..j] wherever that shortens the path; the last stop has no successor
+    private static boolean twoOpt(float[][] distances, int[] tour, long deadline) {
+        int size = tour.length;
+        boolean improved = false;
+        for (int i = 1; i < size - 1; i++) {
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+            int before = tour[i - 1];
+            for (int j = i + 1; j < size; j++) {
+                int head = tour[i];
+                int tail = tour[j];
+                float delta = distances[before][tail] - distances[before][head];
+                if (j < size - 1) {
+                    int after = tour[j + 1];
+                    delta += distances[head][after] - distances[tail][after];
+                }
+                if (delta < -EPSILON) {
+                    reverse(tour, i, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Moves runs of one to three stops, either way round, to wherever they add the least distance
+    private static boolean orOpt(float[][] distances, int[] tour, long deadline) {
+        int size = tour.length;
+        boolean improved = false;
+        for (int length = 1; length <= 3; length++) {
+            for (int i = 1; i + length <= size; i++) {
+                if (System.nanoTime() >= deadline) {
+                    return improved;
+                }
+                int end = i + length - 1;
+                int previous = tour[i - 1];
+                int head = tour[i];
+                int tail = tour[end];
+                float saved = distances[previous][head];
+                if (end + 1 < size) {
+                    int next = tour[end + 1];
+                    saved += distances[tail][next] - distances[previous][next];
+                }
+                for (int p = 0; p < size; p++) {
+                    if (p >= i - 1 && p <= end) {
+                        continue;
+                    }
+                    int left = tour[p];
+                    float forward = distances[left][head];
+                    float reversed = distances[left][tail];
+                    if (p + 1 < size) {
+                        int right = tour[p + 1];
+                        forward += distances[tail][right] - distances[left][right];
+                        reversed += distances[head][right] - distances[left][right];
+                    }
+                    if (Math.min(forward, reversed) - saved < -EPSILON) {
+                        move(tour, i, end, p, reversed < forward);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    private static void reverse(int[] tour, int i, int j) {
+        for (; i < j; i++, j--) {
+            int swap = tour[i];
+            tour[i] = tour[j];
+            tour[j] = swap;
+        }
+    }
+
+    // Moves tour[i..end] to just after position p, which lies outside it
+    private static void move(int[] tour, int i, int end, int p, boolean reversed) {
+        int[] segment = Arrays.copyOfRange(tour, i, end + 1);
+        if (reversed) {
+            reverse(segment, 0, segment.length - 1);
+        }
+        if (p < i) {
+            System.arraycopy(tour, p + 1, tour, p + 1 + segment.length, i - p - 1);
+            System.arraycopy(segment, 0, tour, p + 1, segment.length);
+        } else {
+            System.arraycopy(tour, end + 1, tour, i, p - end);
+            System.arraycopy(segment, 0, tour, p - segment.length + 1, segment.length);
+        }
+    }
+
+    private static final class Waypoint {
+        final String orderId;
+        final String orderNumber;
+        final String type;
+        final String city;
+        final double latitude;
+        final double longitude;
+
+        Waypoint(String orderId, String orderNumber, String type, String city, double latitude, double longitude) {
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.type = type;
+            this.city = city;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    private static final class CachedPlan {
+        final long signature;
+        final RoutePlan plan;
+
+        CachedPlan(long signature, RoutePlan plan) {
+            this.signature = signature;
+            this.plan = plan;
+        }
+    }
+}
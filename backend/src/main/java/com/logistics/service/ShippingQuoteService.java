@@ -0,0 +1,170 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.logistics.dto.ShippingQuote;
+import com.logistics.model.Courier;
+import com.logistics.model.Order;
+
+/**
+ * Prices shipments against rate tables compiled from the couriers in the
+ * {@link CourierCoverageIndex}. A table is immutable once built and is recompiled whenever the
+ * index swaps in a new courier list, so quotes never touch the database and never see a
+ * half-updated set of rates.
+ */
+@Service
+public class ShippingQuoteService {
+
+    // Used when an order names a courier that is not in the table
+    private static final double DEFAULT_BASE_RATE = 10.0;
+    private static final double DEFAULT_PER_KG_RATE = 5.0;
+
+    @Autowired
+    private CourierCoverageIndex courierCoverageIndex;
+
+    @Value("${app.volumetricDivisor:5000}")
+    private double volumetricDivisor;
+
+    private final AtomicReference<RateTable> table = new AtomicReference<>(RateTable.compile(List.of()));
+
+    /**
+     * Quotes every active courier that covers both ends of the route, cheapest first.
+     *
+     * @param fromCity       Origin city
+     * @param fromPostalCode Origin postal code, or null
+     * @param toCity         Destination city
+     * @param toPostalCode   Destination postal code, or null
+     * @param weight         Actual weight in kg
+     * @param dimensions     Parcel dimensions in cm, or null to price on weight alone
+     * @param serviceType    EXPRESS to apply every courier's express multiplier; express couriers always apply it
+     * @return The quotes, empty when no courier covers the route
+     */
+    public List<ShippingQuote> quote(String fromCity, String fromPostalCode, String toCity, String toPostalCode,
+                                     double weight, Order.Dimensions dimensions, String serviceType) {
+        RateTable rates = rates();
+        double chargeable = chargeableWeight(weight, dimensions);
+        boolean express = isExpress(serviceType);
+
+        List<Courier> eligible = courierCoverageIndex.findEligible(fromCity, fromPostalCode, toCity, toPostalCode);
+        List<ShippingQuote> quotes = new ArrayList<>(eligible.size());
+        for (Courier courier : eligible) {
+            Integer i = rates.byId.get(courier.getId());
+            if (i == null) {
+                continue; // no pricing
+            }
+            boolean expressRate = express || rates.expressOnly[i];
+            quotes.add(new ShippingQuote(courier.getId(), courier.getName(), expressRate ? "EXPRESS" : "STANDARD",
+                    chargeable, rates.cost(i, chargeable, expressRate), courier.getAvgDeliveryTime(), courier.getRating()));
+        }
+        quotes.sort((a, b) -> Double.compare(a.getCost(), b.getCost()));
+        return quotes;
+    }
+
+    /**
+     * Shipping cost for an order placed with a named courier. Coverage is not enforced here;
+     * an unknown courier is priced at the legacy flat rate.
+     */
+    public double priceFor(String courierName, double weight, Order.Dimensions dimensions) {
+        RateTable rates = rates();
+        double chargeable = chargeableWeight(weight, dimensions);
+        Integer index = courierName != null ? rates.byName.get(key(courierName)) : null;
+        if (index == null) {
+            return round(DEFAULT_BASE_RATE + chargeable * DEFAULT_PER_KG_RATE);
+        }
+        return rates.cost(index, chargeable, rates.expressOnly[index]);
+    }
+
+    // The greater of actual and volumetric weight, volumetric being L x W x H (cm) / divisor
+    public double chargeableWeight(double weight, Order.Dimensions dimensions) {
+        if (dimensions == null) {
+            return weight;
+        }
+        return Math.max(weight, volume(dimensions) / volumetricDivisor);
+    }
+
+    static double volume(Order.Dimensions dimensions) {
+        return dimensions.getLength() * dimensions.getWidth() * dimensions.getHeight();
+    }
+
+    // Recompiled at most once per courier list the index publishes
+    private RateTable rates() {
+        List<Courier> couriers = courierCoverageIndex.getActiveCouriers();
+        RateTable current = table.get();
+        if (current.source == couriers) {
+            return current;
+        }
+        RateTable compiled = RateTable.compile(couriers);
+        table.compareAndSet(current, compiled);
+        return compiled;
+    }
+
+    private static boolean isExpress(String serviceType) {
+        return serviceType != null && serviceType.equalsIgnoreCase("EXPRESS");
+    }
+
+    static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    /**
+     * Rates laid out column-wise by courier index.
+     */
+    static final class RateTable {
+        final List<Courier> source;
+        final boolean[] expressOnly;
+        final double[] baseRates;
+        final double[] perKgRates;
+        final double[] expressMultipliers;
+        final Map<String, Integer> byId;
+        final Map<String, Integer> byName;
+
+        private RateTable(List<Courier> source) {
+            int size = source.size();
+            this.source = source;
+            expressOnly = new boolean[size];
+            baseRates = new double[size];
+            perKgRates = new double[size];
+            expressMultipliers = new double[size];
+            byId = new HashMap<>();
+            byName = new HashMap<>();
+        }
+
+        static RateTable compile(List<Courier> couriers) {
+            RateTable table = new RateTable(couriers);
+            for (int i = 0; i < couriers.size(); i++) {
+                Courier courier = couriers.get(i);
+                Courier.Pricing pricing = courier.getPricing();
+                if (pricing == null) {
+                    continue;
+                }
+                table.expressOnly[i] = isExpress(courier.getServiceType());
+                table.baseRates[i] = pricing.getBaseRate();
+                table.perKgRates[i] = pricing.getPerKgRate();
+                table.expressMultipliers[i] = pricing.getExpressMultiplier() > 0 ? pricing.getExpressMultiplier() : 1.0;
+                table.byId.put(courier.getId(), i);
+                if (courier.getName() != null) {
+                    table.byName.putIfAbsent(key(courier.getName()), i);
+                }
+            }
+            return table;
+        }
+
+        double cost(int index, double chargeableWeight, boolean express) {
+            double cost = baseRates[index] + chargeableWeight * perKgRates[index];
+            return round(express ? cost * expressMultipliers[index] : cost);
+        }
+    }
+}
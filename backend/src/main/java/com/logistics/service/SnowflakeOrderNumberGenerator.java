@@ -0,0 +1,219 @@
+package com.logistics.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Builds numbers from 63-bit IDs laid out as 41 bits of milliseconds since 2024-01-01,
+ * a 10-bit node ID and a 12-bit per-node sequence, written in Crockford base32. Tracking
+ * numbers carry a Luhn mod 32 check character so typos are rejected before any lookup.
+ *
+ * <p>The node ID is either fixed with {@code app.idNodeId} or leased from the
+ * {@code id_node_leases} collection, whose unique {@code _id} keeps two live instances
+ * from holding the same node. Generation stops if the lease cannot be renewed in time.
+ */
+@Service
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeOrderNumberGenerator.class);
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String LEASES = "id_node_leases";
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int[] VALUES = new int[128];
+    private static final int ID_CHARS = 13; // ceil(63 / 5)
+    private static final String ORDER_PREFIX = "ORD-";
+    private static final String TRACKING_PREFIX = "TRK-";
+    private static final int LEGACY_TRACKING_LENGTH = TRACKING_PREFIX.length() + 8;
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        // Crockford decoding aliases for characters that are easy to misread
+        VALUES['O'] = VALUES['o'] = 0;
+        VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.idNodeId:-1}")
+    private int configuredNodeId;
+
+    @Value("${app.idNodeLeaseMs:60000}")
+    private long leaseMs;
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong state = new AtomicLong();
+    private final String leaseOwner = UUID.randomUUID().toString();
+
+    private volatile long nodeBits;
+    private volatile int nodeId;
+    private volatile long leaseValidUntil = Long.MAX_VALUE;
+
+    @PostConstruct
+    void init() {
+        if (configuredNodeId > MAX_NODE) {
+            throw new IllegalStateException("app.idNodeId must be between 0 and " + MAX_NODE);
+        }
+        setNode(configuredNodeId >= 0 ? configuredNodeId : acquireLease());
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        return ORDER_PREFIX + encode(nextId());
+    }
+
+    @Override
+    public String nextTrackingNumber() {
+        String body = encode(nextId());
+        return TRACKING_PREFIX + body + ALPHABET[checkValue(body)];
+    }
+
+    @Override
+    public String normalizeTrackingNumber(String trackingNumber) {
+        if (trackingNumber == null) {
+            return null;
+        }
+        String candidate = trackingNumber.trim().toUpperCase();
+        if (!candidate.startsWith(TRACKING_PREFIX)) {
+            return null;
+        }
+        // Numbers issued before this generator are accepted as they were stored
+        if (candidate.length() == LEGACY_TRACKING_LENGTH) {
+            return candidate.chars().skip(TRACKING_PREFIX.length()).allMatch(Character::isLetterOrDigit) ? candidate : null;
+        }
+        if (candidate.length() != TRACKING_PREFIX.length() + ID_CHARS + 1) {
+            return null;
+        }
+
+        char[] canonical = new char[ID_CHARS + 1];
+        for (int i = 0; i < canonical.length; i++) {
+            char c = candidate.charAt(TRACKING_PREFIX.length() + i);
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            if (value < 0) {
+                return null;
+            }
+            canonical[i] = ALPHABET[value];
+        }
+        String body = new String(canonical, 0, ID_CHARS);
+        return canonical[ID_CHARS] == ALPHABET[checkValue(body)] ? TRACKING_PREFIX + body + canonical[ID_CHARS] : null;
+    }
+
+    /**
+     * Lock-free: the state only moves forward, to the current millisecond or one sequence
+     * step past the last ID. A burst beyond 4096 IDs per millisecond, or a clock that steps
+     * back, borrows from the next millisecond instead of blocking or repeating.
+     */
+    long nextId() {
+        if (System.currentTimeMillis() > leaseValidUntil) {
+            throw new IllegalStateException("ID node lease expired");
+        }
+        long next;
+        long previous;
+        do {
+            previous = state.get();
+            next = Math.max((System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS, previous + 1);
+        } while (!state.compareAndSet(previous, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idNodeLeaseRenewMs:20000}")
+    public void renewLease() {
+        if (configuredNodeId >= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Query query = Query.query(Criteria.where("_id").is(nodeId).and("owner").is(leaseOwner));
+        boolean renewed = mongoTemplate.updateFirst(query, new Update().set("expiresAt", new Date(now + leaseMs)), LEASES)
+                .getMatchedCount() > 0;
+        if (renewed) {
+            leaseValidUntil = now + leaseMs;
+        } else {
+            logger.warn("Lost the lease on ID node {}, acquiring another", nodeId);
+            setNode(acquireLease());
+        }
+    }
+
+    @PreDestroy
+    void releaseLease() {
+        if (configuredNodeId < 0) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(nodeId).and("owner").is(leaseOwner)), LEASES);
+        }
+    }
+
+    // Claims a free or expired node; the upsert of a held node fails on the unique _id
+    private int acquireLease() {
+        int start = ThreadLocalRandom.current().nextInt(MAX_NODE + 1);
+        for (int i = 0; i <= MAX_NODE; i++) {
+            int candidate = (start + i) & MAX_NODE;
+            long now = System.currentTimeMillis();
+            Query query = Query.query(Criteria.where("_id").is(candidate).orOperator(
+                    Criteria.where("expiresAt").lt(new Date(now)),
+                    Criteria.where("owner").is(leaseOwner)));
+            try {
+                mongoTemplate.upsert(query, new Update().set("owner", leaseOwner).set("expiresAt", new Date(now + leaseMs)), LEASES);
+                leaseValidUntil = now + leaseMs;
+                return candidate;
+            } catch (DuplicateKeyException e) {
+                // Held by a live instance
+            }
+        }
+        throw new IllegalStateException("All " + (MAX_NODE + 1) + " ID nodes are leased");
+    }
+
+    private void setNode(int node) {
+        nodeId = node;
+        nodeBits = (long) node << SEQUENCE_BITS;
+        logger.info("Generating order numbers as ID node {}", node);
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[ID_CHARS];
+        for (int i = ID_CHARS - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // Luhn mod 32: catches every single-character error and most adjacent transpositions
+    static int checkValue(String body) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = body.length() - 1; i >= 0; i--) {
+            int addend = factor * VALUES[body.charAt(i)];
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / ALPHABET.length + addend % ALPHABET.length;
+        }
+        return (ALPHABET.length - sum % ALPHABET.length) % ALPHABET.length;
+    }
+}
@@ -26,20 +26,12 @@ public class TrackingService {
      * @param updatedBy   Who updated the event
      */
     public void addTrackingEvent(String orderId, String status, String description, String location, String updatedBy) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
+        TrackingEvent event = new TrackingEvent(status, description, location);
+        event.setUpdatedBy(updatedBy);
+        event.setTimestamp(LocalDateTime.now());
 
-            TrackingEvent event = new TrackingEvent(status, description, location);
-            event.setUpdatedBy(updatedBy);
-            event.setTimestamp(LocalDateTime.now());
-
-            // Add latest event at the beginning
-            order.getTimeline().add(0, event);
-            order.setUpdatedAt(LocalDateTime.now());
-
-            orderRepository.save(order);
-        }
+        // Add latest event at the beginning, in place, without rewriting the rest of the order
+        orderRepository.prependEvent(orderId, event);
     }
 
     /**
@@ -61,21 +53,13 @@ public class TrackingService {
      * @param locationName Location name
      */
     public void updateLocation(String orderId, double latitude, double longitude, String locationName) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
-
-            TrackingEvent locationEvent = new TrackingEvent(
-                "LOCATION_UPDATE",
-                "Package location updated",
-                locationName
-            );
-
-            order.getTimeline().add(0, locationEvent);
-            order.setUpdatedAt(LocalDateTime.now());
+        TrackingEvent locationEvent = new TrackingEvent(
+            "LOCATION_UPDATE",
+            "Package location updated",
+            locationName
+        );
 
-            orderRepository.save(order);
-        }
+        orderRepository.prependEvent(orderId, locationEvent);
     }
 }
 
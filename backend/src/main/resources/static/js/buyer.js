@@ -1,6 +1,7 @@
 class BuyerDashboard {
     constructor() {
         this.orders = [];
+        this.nextCursor = null;
         this.init();
     }
 
@@ -50,7 +51,9 @@ class BuyerDashboard {
 
     async loadOrders() {
         try {
-            this.orders = await Utils.makeAPICall('/orders');
+            const page = await Utils.makeAPICall('/orders');
+            this.orders = page.orders;
+            this.nextCursor = page.nextCursor;
             this.displayOrders();
         } catch (error) {
             console.error('Failed to load orders:', error);
@@ -58,10 +61,27 @@ class BuyerDashboard {
         }
     }
 
+    // Appends the next page; the button is hidden once the server reports no more orders
+    async loadMoreOrders() {
+        if (!this.nextCursor) return;
+        try {
+            const page = await Utils.makeAPICall(`/orders?cursor=${encodeURIComponent(this.nextCursor)}`);
+            this.orders = this.orders.concat(page.orders);
+            this.nextCursor = page.nextCursor;
+            this.displayOrders();
+        } catch (error) {
+            console.error('Failed to load more orders:', error);
+            Utils.showNotification('Failed to load more orders.', 'error');
+        }
+    }
+
     displayOrders() {
         const tbody = document.getElementById('ordersTableBody');
         if (!tbody) return;
 
+        const loadMore = document.getElementById('loadMoreOrders');
+        if (loadMore) loadMore.style.display = this.nextCursor ? '' : 'none';
+
         if (this.orders.length === 0) {
             tbody.innerHTML = '<tr><td colspan="7" style="text-align: center;">No orders found</td></tr>';
             return;
@@ -70,14 +90,14 @@ class BuyerDashboard {
         tbody.innerHTML = this.orders.map(order => `
             <tr>
                 <td><strong>${order.orderNumber}</strong></td>
-                <td>${order.product.name}</td>
-                <td><code>${order.shipping.trackingNumber}</code></td>
+                <td>${order.productName}</td>
+                <td><code>${order.trackingNumber}</code></td>
                 <td><span class="status-badge status-${order.status.toLowerCase().replace('_', '-')}">${order.status.replace('_', ' ')}</span></td>
-                <td>${Utils.formatCurrency(order.pricing.total)}</td>
-                <td>${Utils.formatDate(order.shipping.estimatedDelivery)}</td>
+                <td>${Utils.formatCurrency(order.total)}</td>
+                <td>${Utils.formatDate(order.estimatedDelivery)}</td>
                 <td>
                     <button onclick="buyerDashboard.viewOrderDetails('${order.id}')" class="btn btn-secondary" style="margin-right: 0.5rem;">Details</button>
-                    <button onclick="buyerDashboard.trackOrder('${order.shipping.trackingNumber}')" class="btn btn-primary" style="margin-right: 0.5rem;">Track</button>
+                    <button onclick="buyerDashboard.trackOrder('${order.trackingNumber}')" class="btn btn-primary" style="margin-right: 0.5rem;">Track</button>
                     ${this.canFlagOrder(order.status) ? `<button onclick="buyerDashboard.openFlagOrderModal('${order.id}')" class="btn" style="background: var(--warning-color); color: white;">Flag</button>` : ''}
                 </td>
             </tr>
@@ -89,19 +109,18 @@ class BuyerDashboard {
     }
 
     async loadStats() {
-        if (this.orders.length === 0) return;
-
-        const totalOrders = this.orders.length;
-        const inTransitOrders = this.orders.filter(order => 
-            ['SHIPPED', 'IN_TRANSIT', 'OUT_FOR_DELIVERY'].includes(order.status)
-        ).length;
-        const deliveredOrders = this.orders.filter(order => order.status === 'DELIVERED').length;
-        const flaggedOrders = this.orders.filter(order => order.status === 'FLAGGED').length;
-
-        document.getElementById('totalOrders').textContent = totalOrders;
-        document.getElementById('inTransitOrders').textContent = inTransitOrders;
-        document.getElementById('deliveredOrders').textContent = deliveredOrders;
-        document.getElementById('flaggedOrders').textContent = flaggedOrders;
+        try {
+            const stats = await Utils.makeAPICall('/orders/stats');
+            const count = status => stats.byStatus[status] || 0;
+
+            document.getElementById('totalOrders').textContent = stats.totalOrders;
+            document.getElementById('inTransitOrders').textContent =
+                count('SHIPPED') + count('IN_TRANSIT') + count('OUT_FOR_DELIVERY');
+            document.getElementById('deliveredOrders').textContent = stats.deliveredOrders;
+            document.getElementById('flaggedOrders').textContent = stats.flaggedOrders;
+        } catch (error) {
+            console.error('Failed to load stats:', error);
+        }
     }
 
     async quickTrack() {
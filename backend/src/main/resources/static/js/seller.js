@@ -2,6 +2,7 @@
 class SellerDashboard {
   constructor() {
     this.orders = [];
+    this.nextCursor = null;
     this.couriers = [];
     this.init();
   }
@@ -67,7 +68,9 @@ class SellerDashboard {
 
   async loadOrders() {
     try {
-      this.orders = await Utils.makeAPICall('/orders');
+      const page = await Utils.makeAPICall('/orders');
+      this.orders = page.orders;
+      this.nextCursor = page.nextCursor;
       this.displayOrders();
     } catch (error) {
       console.error('Failed to load orders:', error);
@@ -75,10 +78,27 @@ class SellerDashboard {
     }
   }
 
+  // Appends the next page; the button is hidden once the server reports no more orders
+  async loadMoreOrders() {
+    if (!this.nextCursor) return;
+    try {
+      const page = await Utils.makeAPICall(`/orders?cursor=${encodeURIComponent(this.nextCursor)}`);
+      this.orders = this.orders.concat(page.orders);
+      this.nextCursor = page.nextCursor;
+      this.displayOrders();
+    } catch (error) {
+      console.error('Failed to load more orders:', error);
+      Utils.showNotification('Failed to load more orders.', 'error');
+    }
+  }
+
   displayOrders() {
     const tbody = document.getElementById('ordersTableBody');
     if (!tbody) return;
 
+    const loadMore = document.getElementById('loadMoreOrders');
+    if (loadMore) loadMore.style.display = this.nextCursor ? '' : 'none';
+
     if (this.orders.length === 0) {
       tbody.innerHTML = '<tr><td colspan="8" style="text-align: center;">No orders found</td></tr>';
       return;
@@ -87,11 +107,11 @@ class SellerDashboard {
     tbody.innerHTML = this.orders.map(order => `
       <tr>
         <td><strong>${order.orderNumber}</strong></td>
-        <td>${order.product.name}</td>
+        <td>${order.productName}</td>
         <td>${order.buyerEmail || 'N/A'}</td>
-        <td>${order.shipping.courierService}</td>
+        <td>${order.courierService}</td>
         <td><span class="status-badge status-${order.status.toLowerCase().replace('_', '-')}">${order.status.replace('_', ' ')}</span></td>
-        <td>${Utils.formatCurrency(order.pricing.total)}</td>
+        <td>${Utils.formatCurrency(order.total)}</td>
         <td>${Utils.formatDate(order.createdAt)}</td>
         <td>
           <button onclick="sellerDashboard.viewOrderDetails('${order.id}')" class="btn btn-secondary" style="margin-right: 0.5rem;">View</button>
@@ -102,21 +122,15 @@ class SellerDashboard {
   }
 
   async loadStats() {
-    if (this.orders.length === 0) return;
-
-    const totalOrders = this.orders.length;
-    const activeOrders = this.orders.filter(order =>
-      ['PENDING', 'CONFIRMED', 'SHIPPED', 'IN_TRANSIT', 'OUT_FOR_DELIVERY'].includes(order.status)
-    ).length;
-    const deliveredOrders = this.orders.filter(order => order.status === 'DELIVERED').length;
-    const totalRevenue = this.orders
-      .filter(order => order.status === 'DELIVERED')
-      .reduce((sum, order) => sum + order.pricing.total, 0);
-
-    document.getElementById('totalOrders').textContent = totalOrders;
-    document.getElementById('activeOrders').textContent = activeOrders;
-    document.getElementById('deliveredOrders').textContent = deliveredOrders;
-    document.getElementById('totalRevenue').textContent = Utils.formatCurrency(totalRevenue);
+    try {
+      const stats = await Utils.makeAPICall('/orders/stats');
+      document.getElementById('totalOrders').textContent = stats.totalOrders;
+      document.getElementById('activeOrders').textContent = stats.activeOrders;
+      document.getElementById('deliveredOrders').textContent = stats.deliveredOrders;
+      document.getElementById('totalRevenue').textContent = Utils.formatCurrency(stats.deliveredRevenue);
+    } catch (error) {
+      console.error('Failed to load stats:', error);
+    }
   }
 
   async handleCreateOrder(event) {
@@ -361,11 +375,11 @@ exportOrders() {
 
   const rows = this.orders.map(o => ([
     o.orderNumber,
-    o.product?.name || '',
+    o.productName || '',
     o.buyerEmail || '',
-    o.shipping?.courierService || '',
+    o.courierService || '',
     (o.status || '').replace('_',' '),
-    (o.pricing?.total != null ? Utils.formatCurrency(o.pricing.total) : ''),
+    (o.total != null ? Utils.formatCurrency(o.total) : ''),
     Utils.formatDate(o.createdAt) || ''
   ]));
 
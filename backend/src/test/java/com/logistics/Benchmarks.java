@@ -0,0 +1,26 @@
+package com.logistics;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs a JMH benchmark class from a JUnit test tagged {@code benchmark}, so
+ * {@code mvn test -Pbenchmark} runs every benchmark and a plain build skips them. Iterations
+ * come from each class's own annotations.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void run(Class<?> benchmark) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(benchmark.getName().replace("$", "\\$") + "\\.")
+                .forks(1)
+                .shouldFailOnError(true)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,59 @@
+package com.logistics;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.logistics.model.Order;
+import com.logistics.model.Product;
+import com.logistics.model.TrackingEvent;
+import com.logistics.model.User;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+/**
+ * An in-memory MongoDB wire server and a template with the converters {@code MongoConfig}
+ * registers, so tests read and write documents exactly as production does.
+ */
+public final class InMemoryMongo implements AutoCloseable {
+
+    private final MongoServer server;
+    private final MongoClient client;
+    private final MongoTemplate mongoTemplate;
+
+    public InMemoryMongo() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+
+        MongoCustomConversions conversions = MongoCustomConversions.create(adapter -> adapter.registerConverters(List.of(
+                new Order.ReadConverter(), new Order.WriteConverter(),
+                new TrackingEvent.ReadConverter(), new TrackingEvent.WriteConverter(),
+                new Product.ReadConverter(), new Product.WriteConverter(),
+                new User.ReadConverter(), new User.WriteConverter())));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, "test"), converter);
+    }
+
+    public MongoTemplate template() {
+        return mongoTemplate;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.shutdownNow();
+    }
+}
@@ -0,0 +1,51 @@
+package com.logistics.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class OrderCursorTest {
+
+    @Test
+    void roundTripsAtMillisecondPrecision() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 9, 14, 30, 15, 123_456_789);
+        OrderCursor decoded = OrderCursor.decode(new OrderCursor(createdAt, "65f1c0e9b1d4a00123456789").encode());
+
+        assertEquals(LocalDateTime.of(2024, 3, 9, 14, 30, 15, 123_000_000), decoded.getCreatedAt());
+        assertEquals("65f1c0e9b1d4a00123456789", decoded.getId());
+    }
+
+    @Test
+    void encodesUrlSafely() {
+        String cursor = new OrderCursor(LocalDateTime.now(), "a/b+c?d").encode();
+
+        assertEquals(-1, indexOfAny(cursor, "+/=?&"));
+        assertEquals("a/b+c?d", OrderCursor.decode(cursor).getId());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encode("v2:0:abc")));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encode("v1:0:")));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encode("v1:soon:abc")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int indexOfAny(String value, String chars) {
+        for (int i = 0; i < value.length(); i++) {
+            if (chars.indexOf(value.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,131 @@
+package com.logistics.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+class OrderConverterTest {
+
+    private final Order.ReadConverter reader = new Order.ReadConverter();
+    private final Order.WriteConverter writer = new Order.WriteConverter();
+
+    @Test
+    void roundTripsEveryField() {
+        for (int i = 0; i < 12; i++) {
+            Order order = SampleOrders.order(i);
+            Document written = writer.convert(order);
+            Order read = reader.convert(written);
+
+            assertEquals(written, writer.convert(read));
+            assertSameOrder(order, read);
+        }
+    }
+
+    @Test
+    void writesCompactTimelineEvents() {
+        Order order = SampleOrders.order(5);
+        List<?> timeline = writer.convert(order).getList("timeline", Document.class);
+
+        Document first = (Document) timeline.get(0);
+        assertEquals(OrderStatus.PENDING.name(), first.getString("s"));
+        assertFalse(first.containsKey("d"), "default description is left out");
+        assertEquals("Scanned at hub 1", ((Document) timeline.get(1)).getString("d"));
+    }
+
+    @Test
+    void leavesOutMissingCoordinatesAndNulls() {
+        Order order = SampleOrders.order(3);
+        order.getShipping().getTo().setLatitude(0);
+        order.getShipping().getTo().setLongitude(0);
+        Document written = writer.convert(order);
+
+        Document to = written.get("shipping", Document.class).get("to", Document.class);
+        assertFalse(to.containsKey("location"));
+        assertFalse(written.containsKey("courierId"));
+        assertNull(reader.convert(written).getCourierId());
+    }
+
+    // Orders stored before the converters were written by reflection mapping, with v1 timeline events
+    @Test
+    void readsOrdersWrittenByReflectionMapping() {
+        MappingMongoConverter reflection = reflectionConverter();
+
+        for (int i = 0; i < 12; i++) {
+            Order order = SampleOrders.order(i);
+            Document legacy = new Document();
+            reflection.write(order, legacy);
+
+            assertSameOrder(order, reader.convert(legacy));
+        }
+    }
+
+    // Spring Data's default mapping, with only the built-in conversions such as java.time
+    static MappingMongoConverter reflectionConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private static void assertSameOrder(Order expected, Order actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getOrderNumber(), actual.getOrderNumber());
+        assertEquals(expected.getSellerId(), actual.getSellerId());
+        assertEquals(expected.getBuyerId(), actual.getBuyerId());
+        assertEquals(expected.getCourierId(), actual.getCourierId());
+        assertEquals(expected.getPickupBatchId(), actual.getPickupBatchId());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        // Mongo dates keep milliseconds
+        assertEquals(expected.getCreatedAt().truncatedTo(ChronoUnit.MILLIS), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS), actual.getUpdatedAt());
+
+        assertEquals(expected.getProduct().getName(), actual.getProduct().getName());
+        assertEquals(expected.getProduct().getCategory(), actual.getProduct().getCategory());
+        assertEquals(expected.getProduct().getWeight(), actual.getProduct().getWeight());
+        assertEquals(expected.getProduct().getValue(), actual.getProduct().getValue());
+        assertEquals(expected.getProduct().getDimensions().getHeight(), actual.getProduct().getDimensions().getHeight());
+
+        assertSameAddress(expected.getShipping().getFrom(), actual.getShipping().getFrom());
+        assertSameAddress(expected.getShipping().getTo(), actual.getShipping().getTo());
+        assertEquals(expected.getShipping().getCourierService(), actual.getShipping().getCourierService());
+        assertEquals(expected.getShipping().getTrackingNumber(), actual.getShipping().getTrackingNumber());
+        assertEquals(expected.getShipping().getEstimatedDelivery(), actual.getShipping().getEstimatedDelivery());
+
+        assertEquals(expected.getPricing().getTotal(), actual.getPricing().getTotal());
+        assertEquals(expected.getPricing().getShippingCost(), actual.getPricing().getShippingCost());
+
+        assertEquals(expected.getTimeline().size(), actual.getTimeline().size());
+        for (int i = 0; i < expected.getTimeline().size(); i++) {
+            TrackingEvent want = expected.getTimeline().get(i);
+            TrackingEvent got = actual.getTimeline().get(i);
+            assertEquals(want.getStatus(), got.getStatus());
+            assertEquals(want.getDescription(), got.getDescription());
+            assertEquals(want.getLocation(), got.getLocation());
+            assertEquals(want.getTimestamp(), got.getTimestamp());
+            assertEquals(want.getUpdatedBy(), got.getUpdatedBy());
+        }
+    }
+
+    private static void assertSameAddress(Address expected, Address actual) {
+        assertEquals(expected.getStreet(), actual.getStreet());
+        assertEquals(expected.getCity(), actual.getCity());
+        assertEquals(expected.getPostalCode(), actual.getPostalCode());
+        assertEquals(expected.getLatitude(), actual.getLatitude());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+    }
+}
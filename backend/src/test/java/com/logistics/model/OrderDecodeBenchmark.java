@@ -0,0 +1,82 @@
+package com.logistics.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import com.logistics.Benchmarks;
+
+/**
+ * Per-document cost of decoding 10,000 orders: Spring Data's reflection mapping, as used before
+ * the hand-written converters, against {@link Order.ReadConverter}. Each path reads documents
+ * in the form it writes itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDecodeBenchmark {
+
+    private static final int ORDERS = 10_000;
+
+    private MappingMongoConverter reflection;
+    private Order.ReadConverter reader;
+    private List<Document> reflectionDocuments;
+    private List<Document> converterDocuments;
+
+    @Setup
+    public void setUp() {
+        reflection = OrderConverterTest.reflectionConverter();
+        reader = new Order.ReadConverter();
+        Order.WriteConverter writer = new Order.WriteConverter();
+
+        reflectionDocuments = new ArrayList<>(ORDERS);
+        converterDocuments = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = SampleOrders.order(i);
+            Document document = new Document();
+            reflection.write(order, document);
+            reflectionDocuments.add(document);
+            converterDocuments.add(writer.convert(order));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void reflectionMapping(Blackhole blackhole) {
+        for (Document document : reflectionDocuments) {
+            blackhole.consume(reflection.read(Order.class, document));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void readConverter(Blackhole blackhole) {
+        for (Document document : converterDocuments) {
+            blackhole.consume(reader.convert(document));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(OrderDecodeBenchmark.class);
+    }
+}
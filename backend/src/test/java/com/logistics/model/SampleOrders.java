@@ -0,0 +1,86 @@
+package com.logistics.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Fully populated orders, varied by index, for converter tests and benchmarks.
+ */
+final class SampleOrders {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 6, 3, 8, 15, 30, 250_000_000);
+    private static final OrderStatus[] PATH = {
+            OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.SHIPPED, OrderStatus.IN_TRANSIT,
+            OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED
+    };
+
+    private SampleOrders() {
+    }
+
+    static Order order(int i) {
+        Order order = new Order();
+        order.setId(new ObjectId().toHexString());
+        order.setOrderNumber("ORD-" + (100_000 + i));
+        order.setSellerId("seller-" + (i % 50));
+        order.setBuyerId("buyer-" + (i % 700));
+        order.setCourierId(i % 3 == 0 ? null : "courier-" + (i % 40));
+        order.setPickupBatchId(i % 5 == 0 ? "batch-" + (i / 5) : null);
+
+        Order.Product product = new Order.Product();
+        product.setName("Parcel " + i);
+        product.setCategory(i % 2 == 0 ? "Electronics" : "Books");
+        product.setWeight(0.5 + i % 20);
+        product.setValue(10.0 + i % 300);
+        Order.Dimensions dimensions = new Order.Dimensions();
+        dimensions.setLength(30);
+        dimensions.setWidth(20);
+        dimensions.setHeight(10 + i % 15);
+        product.setDimensions(dimensions);
+        order.setProduct(product);
+
+        Order.Shipping shipping = new Order.Shipping();
+        shipping.setFrom(address("12 Market Street", "Mumbai", "400001", 19.07 + i % 10 * 0.01, 72.87));
+        shipping.setTo(address(i + " Park Road", "Pune", "411001", 18.52, 73.85 + i % 10 * 0.01));
+        shipping.setCourierService("FastTrack Express");
+        shipping.setTrackingNumber("TRK-" + (200_000 + i));
+        shipping.setEstimatedDelivery(CREATED.plusDays(3));
+        order.setShipping(shipping);
+
+        Order.Pricing pricing = new Order.Pricing();
+        pricing.setProductValue(product.getValue());
+        pricing.setShippingCost(5.5);
+        pricing.setTotal(product.getValue() + 5.5);
+        order.setPricing(pricing);
+
+        int steps = 1 + i % PATH.length;
+        List<TrackingEvent> timeline = new ArrayList<>(steps);
+        for (int step = 0; step < steps; step++) {
+            TrackingEvent event = new TrackingEvent(PATH[step].name(),
+                    step % 2 == 0 ? PATH[step].getDescription() : "Scanned at hub " + step, "Hub " + step);
+            event.setTimestamp(CREATED.plusHours(step * 6L));
+            event.setUpdatedBy(step == 0 ? "seller" : "courier");
+            timeline.add(event);
+        }
+        order.setTimeline(timeline);
+        order.setStatus(PATH[steps - 1]);
+        order.setCreatedAt(CREATED);
+        order.setUpdatedAt(CREATED.plusHours((steps - 1) * 6L));
+        order.setVersion((long) steps);
+        return order;
+    }
+
+    private static Address address(String street, String city, String postalCode, double latitude, double longitude) {
+        Address address = new Address();
+        address.setStreet(street);
+        address.setCity(city);
+        address.setState("MH");
+        address.setPostalCode(postalCode);
+        address.setCountry("IN");
+        address.setLatitude(latitude);
+        address.setLongitude(longitude);
+        return address;
+    }
+}
@@ -0,0 +1,87 @@
+package com.logistics.security;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.Benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Verifying one token: the single parse through the prebuilt parser against the old path,
+ * which decoded the secret and built a parser twice, once to validate and once to read claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "bG9naXN0aWNzLWJlbmNobWFyay1zZWNyZXQta2V5LWF0LWxlYXN0LTI1Ni1iaXRz";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyId", "primary");
+        ReflectionTestUtils.setField(jwtUtils, "jwtVerificationKeys", "");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        jwtUtils.init();
+
+        token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "primary")
+                .setSubject("seller@example.com")
+                .claim(JwtUtils.CLAIM_USER_ID, "652f1c0e9b1d4a0012345678")
+                .claim(JwtUtils.CLAIM_NAME, "Benchmark Seller")
+                .claim(JwtUtils.CLAIM_ROLES, List.of("ROLE_SELLER"))
+                .claim(JwtUtils.CLAIM_VERSION, 0L)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86_400_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public JwtClaims singleParse() {
+        return jwtUtils.verify(token);
+    }
+
+    // validateJwtToken followed by getClaimsFromJwtToken, as the filter did before
+    @Benchmark
+    public Claims doubleParse() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Jwts.parserBuilder().setSigningKey(key).build().parse(token);
+        Key again = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(again).build().parseClaimsJws(token).getBody();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(JwtVerificationBenchmark.class);
+    }
+}
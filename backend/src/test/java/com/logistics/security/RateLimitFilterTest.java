@@ -0,0 +1,126 @@
+package com.logistics.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.config.RateLimitProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+
+    private RateLimitProperties properties;
+    private MeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setRoutes(List.of(
+                route("auth", "/api/auth/**", 10, 0.2),
+                route("tracking", "/api/tracking/public/**", 2, 1000)));
+        meterRegistry = new SimpleMeterRegistry();
+
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        filter.init();
+    }
+
+    @Test
+    void admitsABurstUpToCapacityThenRejects() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, send("/api/auth/signin", "10.0.0.1").getStatus());
+        }
+
+        MockHttpServletResponse rejected = send("/api/auth/signin", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals(1.0, meterRegistry.get("http.ratelimit.rejected").tag("route", "auth").counter().count());
+        // Other clients and unlimited routes are unaffected
+        assertEquals(200, send("/api/auth/signin", "10.0.0.2").getStatus());
+        assertEquals(200, send("/api/orders", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void retryAfterIsTheWaitForTheNextTokenRoundedUp() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            send("/api/auth/signin", "10.0.0.1");
+        }
+
+        MockHttpServletResponse rejected = send("/api/auth/signin", "10.0.0.1");
+
+        // 0.2 tokens a second: one token every 5 s
+        assertEquals("5", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("application/json", rejected.getContentType());
+    }
+
+    @Test
+    void clientsBeyondTheBucketLimitShareOneBucketPerRoute() throws Exception {
+        properties.setMaxBuckets(1);
+        for (int i = 0; i < 10; i++) {
+            send("/api/auth/signin", "10.0.0.1");
+        }
+
+        // The map is full, so each new client draws from the route's overflow bucket
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, send("/api/auth/signin", "10.0.1." + i).getStatus());
+        }
+        assertEquals(429, send("/api/auth/signin", "10.0.2.1").getStatus());
+        assertEquals(429, send("/api/auth/signin", "10.0.0.1").getStatus());
+        assertEquals(1.0, meterRegistry.get("http.ratelimit.buckets").gauge().value());
+    }
+
+    @Test
+    void idleBucketsAreEvictedAndFreeRoomForNewClients() throws Exception {
+        properties.setMaxBuckets(1);
+        properties.setIdleEvictionMs(0);
+        // One token every millisecond, so this bucket is full again almost at once
+        send("/api/tracking/public/ABC", "10.0.0.1");
+        Thread.sleep(5);
+
+        filter.evictIdleBuckets();
+
+        assertEquals(0.0, meterRegistry.get("http.ratelimit.buckets").gauge().value());
+        send("/api/tracking/public/ABC", "10.0.0.2");
+        assertEquals(1.0, meterRegistry.get("http.ratelimit.buckets").gauge().value());
+    }
+
+    @Test
+    void bucketsStillRefillingAreKept() throws Exception {
+        properties.setIdleEvictionMs(0);
+        send("/api/auth/signin", "10.0.0.1");
+
+        filter.evictIdleBuckets();
+
+        assertEquals(1.0, meterRegistry.get("http.ratelimit.buckets").gauge().value());
+    }
+
+    private MockHttpServletResponse send(String path, String clientIp) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(clientIp);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static RateLimitProperties.Route route(String name, String pattern, int capacity, double refillPerSecond) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName(name);
+        route.setPattern(pattern);
+        route.setCapacity(capacity);
+        route.setRefillPerSecond(refillPerSecond);
+        return route;
+    }
+}
@@ -0,0 +1,75 @@
+package com.logistics.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.InMemoryMongo;
+import com.logistics.model.User;
+
+class TokenRevocationServiceTest {
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        service = new TokenRevocationService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "jwtExpirationMs", 86_400_000L);
+        ReflectionTestUtils.setField(service, "refreshMs", 30_000L);
+        ReflectionTestUtils.setField(service, "clockSkewMs", 5_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void revocationCommittedAfterALaterOneIsStillSeen() {
+        LocalDateTime now = LocalDateTime.now();
+        String bumped = insertUser(true, now.plusSeconds(1));
+        service.refresh();
+        assertTrue(service.isRevoked(bumped, 0));
+
+        // Stamped before the mark just seen, but only committed now
+        String deactivated = insertUser(false, now.minusSeconds(20));
+        service.refresh();
+
+        assertTrue(service.isRevoked(deactivated, 0));
+        assertTrue(service.isRevoked(deactivated, 5));
+    }
+
+    @Test
+    void revocationFromALaggingClockIsStillSeen() {
+        String bumped = insertUser(true, LocalDateTime.now().plusSeconds(3));
+        service.refresh();
+
+        String lagging = insertUser(true, LocalDateTime.now().minusSeconds(30));
+        service.refresh();
+
+        assertTrue(service.isRevoked(lagging, 0));
+        assertFalse(service.isRevoked(lagging, 1));
+        assertTrue(service.isRevoked(bumped, 0));
+    }
+
+    private String insertUser(boolean active, LocalDateTime tokenVersionUpdatedAt) {
+        User user = new User("user" + System.nanoTime() + "@example.com", "hash");
+        user.setActive(active);
+        user.revokeTokens();
+        user.setTokenVersion(1);
+        user.setTokenVersionUpdatedAt(tokenVersionUpdatedAt);
+        return mongoTemplate.insert(user).getId();
+    }
+}
@@ -0,0 +1,211 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.InMemoryMongo;
+import com.logistics.dto.OrderRequest;
+import com.logistics.model.Order;
+import com.logistics.model.User;
+import com.logistics.repository.UserRepository;
+
+import jakarta.validation.Validation;
+
+class BulkOrderServiceTest {
+
+    private static final String CSV_HEADER = "productName,productCategory,weight,productValue,courierService,buyerEmail,"
+            + "fromStreet,fromCity,toStreet,toCity,length,width,height";
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private OrderService orderService;
+    private OrderStatsService orderStatsService;
+    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
+    private BulkOrderService service;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        objectMapper = new ObjectMapper();
+
+        // Orders are numbered after their product, so rows can collide on the unique order number
+        orderService = Mockito.mock(OrderService.class);
+        Mockito.when(orderService.buildOrder(Mockito.any(), Mockito.eq("seller"))).thenAnswer(invocation -> {
+            OrderRequest request = invocation.getArgument(0);
+            if ("Unpriceable".equals(request.getProductName())) {
+                throw new IllegalArgumentException("Unknown courier service: " + request.getCourierService());
+            }
+            Order order = new Order();
+            order.setOrderNumber("ORD-" + request.getProductName());
+            order.setSellerId("seller");
+            Order.Product product = new Order.Product();
+            product.setName(request.getProductName());
+            product.setDimensions(request.getDimensions());
+            order.setProduct(product);
+            Order.Shipping shipping = new Order.Shipping();
+            shipping.setFrom(request.getFromAddress());
+            shipping.setTo(request.getToAddress());
+            shipping.setTrackingNumber("TRK-" + request.getProductName());
+            order.setShipping(shipping);
+            return order;
+        });
+        orderStatsService = Mockito.mock(OrderStatsService.class);
+        userRepository = Mockito.mock(UserRepository.class);
+        User buyer = new User("buyer@example.com", "hash");
+        buyer.setId("buyer");
+        Mockito.when(userRepository.findIdAndEmailByEmailIn(Mockito.any())).thenReturn(List.of(buyer));
+
+        service = new BulkOrderService();
+        ReflectionTestUtils.setField(service, "orderService", orderService);
+        ReflectionTestUtils.setField(service, "orderStatsService", orderStatsService);
+        ReflectionTestUtils.setField(service, "emailService", Mockito.mock(EmailService.class));
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void importsNdjsonAndReportsBadRowsInPlace() throws Exception {
+        String input = String.join("\n",
+                json("Lamp"),
+                "",
+                "{\"productName\": \"Chair\", ",
+                json("Desk").replace("\"weight\":2.0", "\"weight\":-1"),
+                json("Shelf"));
+
+        List<JsonNode> results = importOrders(input, false);
+
+        assertEquals(4, results.size());
+        assertSucceeded(results.get(0), 1, "TRK-Lamp");
+        assertFailed(results.get(1), 2, "Malformed JSON");
+        assertFailed(results.get(2), 3, "weight must be greater than 0");
+        assertSucceeded(results.get(3), 4, "TRK-Shelf");
+        Order lamp = mongoTemplate.findById(results.get(0).get("orderId").asText(), Order.class);
+        assertEquals("buyer", lamp.getBuyerId());
+        assertEquals(2, mongoTemplate.count(new Query(), Order.class));
+    }
+
+    @Test
+    void importsCsvByHeaderNameWithQuotedFields() throws Exception {
+        String input = String.join("\n",
+                CSV_HEADER,
+                "Lamp,Home,2.0,40,Standard,buyer@example.com,\"1 Market St, Unit 4\",Mumbai,2 Hill Rd,Pune,30,20,10",
+                "Chair,Home,2.0,40,Standard,buyer@example.com,1 Market St,Mumbai,2 Hill Rd,Pune",
+                "Desk,Home,heavy,40,Standard,buyer@example.com,1 Market St,Mumbai,2 Hill Rd,Pune,,,",
+                "\"Say \"\"hi\"\" mug\",Home,0.3,9,Standard,buyer@example.com,1 Market St,Mumbai,2 Hill Rd,Pune,,,");
+
+        List<JsonNode> results = importOrders(input, true);
+
+        assertEquals(4, results.size());
+        assertSucceeded(results.get(0), 1, "TRK-Lamp");
+        assertFailed(results.get(1), 2, "Expected 13 columns but found 10");
+        assertFailed(results.get(2), 3, "Invalid number for weight: heavy");
+        assertSucceeded(results.get(3), 4, "TRK-Say \"hi\" mug");
+        Order lamp = mongoTemplate.findById(results.get(0).get("orderId").asText(), Order.class);
+        assertEquals("1 Market St, Unit 4", lamp.getShipping().getFrom().getStreet());
+        assertEquals(10.0, lamp.getProduct().getDimensions().getHeight());
+    }
+
+    @Test
+    void rowsAreProcessedAndReportedOneChunkAtATime() throws Exception {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            lines.add(json("Item" + i));
+        }
+
+        List<JsonNode> results = importOrders(String.join("\n", lines), false);
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < 5; i++) {
+            assertSucceeded(results.get(i), i + 1, "TRK-Item" + (i + 1));
+        }
+        // Two full chunks and the remainder, each with its own buyer lookup and stats update
+        Mockito.verify(userRepository, Mockito.times(3)).findIdAndEmailByEmailIn(Mockito.any());
+        Mockito.verify(orderStatsService, Mockito.times(3)).recordCreated(Mockito.<Collection<Order>>any());
+    }
+
+    @Test
+    void insertErrorsAreMappedBackToTheirInputRows() throws Exception {
+        mongoTemplate.indexOps(Order.class).ensureIndex(new Index("orderNumber", Sort.Direction.ASC).unique());
+        // Rows 2 and 3 never reach the insert, so the duplicate is the third order inserted but row 5
+        String input = String.join("\n",
+                json("Lamp"),
+                "not json",
+                json("Unpriceable"),
+                json("Chair"),
+                json("Lamp"),
+                json("Desk"));
+
+        List<JsonNode> results = importOrders(input, false);
+
+        assertEquals(6, results.size());
+        assertSucceeded(results.get(0), 1, "TRK-Lamp");
+        assertFailed(results.get(1), 2, "Malformed JSON");
+        assertFailed(results.get(2), 3, "Could not create order: Unknown courier service");
+        assertSucceeded(results.get(3), 4, "TRK-Chair");
+        assertFailed(results.get(4), 5, "Insert failed");
+        assertSucceeded(results.get(5), 6, "TRK-Desk");
+        assertEquals(3, mongoTemplate.count(new Query(), Order.class));
+    }
+
+    private List<JsonNode> importOrders(String input, boolean csv) throws Exception {
+        StringWriter out = new StringWriter();
+        service.importOrders(new BufferedReader(new StringReader(input)), csv, "seller", out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private static String json(String productName) {
+        return "{\"productName\":\"" + productName + "\",\"productCategory\":\"Home\",\"weight\":2.0,"
+                + "\"productValue\":40.0,\"courierService\":\"Standard\",\"buyerEmail\":\"buyer@example.com\","
+                + "\"fromAddress\":{\"street\":\"1 Market St\",\"city\":\"Mumbai\"},"
+                + "\"toAddress\":{\"street\":\"2 Hill Rd\",\"city\":\"Pune\"}}";
+    }
+
+    private static void assertSucceeded(JsonNode result, long row, String trackingNumber) {
+        assertEquals(row, result.get("row").asLong());
+        assertTrue(result.get("success").asBoolean(), result::toString);
+        assertNotNull(result.get("orderId"));
+        assertEquals(trackingNumber, result.get("trackingNumber").asText());
+    }
+
+    private static void assertFailed(JsonNode result, long row, String error) {
+        assertEquals(row, result.get("row").asLong());
+        assertFalse(result.get("success").asBoolean(), result::toString);
+        assertTrue(result.get("error").asText().startsWith(error), result::toString);
+    }
+}
@@ -0,0 +1,198 @@
+package com.logistics.service;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.Benchmarks;
+import com.logistics.model.Address;
+import com.logistics.model.Courier;
+import com.logistics.model.ERole;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.Role;
+import com.logistics.model.User;
+import com.logistics.repository.CourierRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * One assignment pass over 100k pending orders from 20k pickup points with a fleet of 10k
+ * couriers, half of them FastTrack vans. MongoDB is stubbed out, so this times consolidation,
+ * the grid search, eligibility and load bookkeeping alone. Seeded, so every run places the same
+ * fleet and orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CourierAssignmentBenchmark {
+
+    private static final int COURIERS = 10_000;
+    private static final int ORDERS = 100_000;
+    private static final int PICKUPS = 20_000;
+
+    private final Map<String, Order> orders = new HashMap<>();
+    private CourierAssignmentService service;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Courier fastTrack = new Courier();
+        fastTrack.setId("fasttrack");
+        fastTrack.setName("FastTrack");
+        fastTrack.setVehicleCapacityKg(400);
+        fastTrack.setVehicleCapacityM3(3.5);
+
+        List<User> couriers = new ArrayList<>(COURIERS);
+        for (int i = 0; i < COURIERS; i++) {
+            User user = new User("courier" + i + "@example.com", "hash");
+            user.setId("courier-" + i);
+            user.setRoles(Set.of(new Role(ERole.ROLE_COURIER)));
+            User.Profile profile = new User.Profile();
+            profile.setCompany(i % 2 == 0 ? "FastTrack" : null);
+            profile.setAddress(address(random, "Base " + i));
+            user.setProfile(profile);
+            couriers.add(user);
+        }
+
+        Address[] pickups = new Address[PICKUPS];
+        for (int i = 0; i < PICKUPS; i++) {
+            pickups[i] = address(random, i + " Market Street");
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setId("order-" + i);
+            order.setStatus(OrderStatus.CONFIRMED);
+            Order.Product product = new Order.Product();
+            product.setWeight(0.5 + random.nextDouble() * 20);
+            Order.Dimensions dimensions = new Order.Dimensions();
+            dimensions.setLength(10 + random.nextInt(50));
+            dimensions.setWidth(10 + random.nextInt(40));
+            dimensions.setHeight(5 + random.nextInt(30));
+            product.setDimensions(dimensions);
+            order.setProduct(product);
+            Order.Shipping shipping = new Order.Shipping();
+            shipping.setFrom(pickups[random.nextInt(PICKUPS)]);
+            shipping.setTo(address(random, i + " Park Road"));
+            shipping.setCourierService(i % 2 == 0 ? "FastTrack" : null);
+            order.setShipping(shipping);
+            orders.put(order.getId(), order);
+        }
+
+        MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class, Mockito.withSettings().stubOnly());
+        Mockito.when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(User.class))).thenReturn(couriers);
+        Mockito.when(mongoTemplate.aggregate(Mockito.any(Aggregation.class), Mockito.eq(Order.class), Mockito.eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        Mockito.when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Order.class))).thenAnswer(invocation -> {
+            Document ids = (Document) invocation.getArgument(0, Query.class).getQueryObject().get("_id");
+            List<Order> found = new ArrayList<>();
+            for (Object id : ids.getList("$in", Object.class)) {
+                found.add(orders.get(id.toString()));
+            }
+            return found;
+        });
+        // A mock would walk the stack on each of the 100k queued updates
+        BulkOperations bulk = (BulkOperations) Proxy.newProxyInstance(BulkOperations.class.getClassLoader(),
+                new Class<?>[] {BulkOperations.class}, (proxy, method, args) -> method.getReturnType().isInstance(proxy) ? proxy : null);
+        Mockito.when(mongoTemplate.bulkOps(Mockito.any(BulkOperations.BulkMode.class), Mockito.eq(Order.class))).thenReturn(bulk);
+
+        CourierRepository courierRepository = Mockito.mock(CourierRepository.class);
+        Mockito.when(courierRepository.findByIsActiveTrue()).thenReturn(List.of(fastTrack));
+        CourierCoverageIndex courierCoverageIndex = new CourierCoverageIndex();
+        ReflectionTestUtils.setField(courierCoverageIndex, "courierRepository", courierRepository);
+        courierCoverageIndex.reload();
+
+        meterRegistry = new SimpleMeterRegistry();
+        CourierLoadBalancer courierLoadBalancer = new CourierLoadBalancer();
+        ReflectionTestUtils.setField(courierLoadBalancer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(courierLoadBalancer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(courierLoadBalancer, "defaultCapacityKg", 1000.0);
+        ReflectionTestUtils.setField(courierLoadBalancer, "defaultCapacityM3", 8.0);
+
+        service = new CourierAssignmentService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "courierCoverageIndex", courierCoverageIndex);
+        ReflectionTestUtils.setField(service, "orderStatsService", Mockito.mock(OrderStatsService.class, Mockito.withSettings().stubOnly()));
+        ReflectionTestUtils.setField(service, "courierLoadBalancer", courierLoadBalancer);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        ReflectionTestUtils.setField(service, "cellDegrees", 0.25);
+        ReflectionTestUtils.setField(service, "maxRings", 40);
+        ReflectionTestUtils.setField(service, "loadPenaltyKm", 5.0);
+        ReflectionTestUtils.setField(service, "maxOpenOrders", 40);
+        ReflectionTestUtils.setField(service, "utilizationPenaltyKm", 20.0);
+        service.registerMetrics();
+    }
+
+    // Every pass starts from an idle fleet, fresh runs and unassigned orders
+    @Setup(Level.Iteration)
+    public void reset() {
+        for (Order order : orders.values()) {
+            order.setCourierId(null);
+            order.setPickupBatchId(null);
+        }
+        PickupConsolidator pickupConsolidator = new PickupConsolidator();
+        ReflectionTestUtils.setField(pickupConsolidator, "enabled", true);
+        ReflectionTestUtils.setField(pickupConsolidator, "radiusKm", 0.5);
+        ReflectionTestUtils.setField(pickupConsolidator, "windowMinutes", 120L);
+        ReflectionTestUtils.setField(pickupConsolidator, "maxWeightKg", 400.0);
+        ReflectionTestUtils.setField(pickupConsolidator, "maxVolumeM3", 3.5);
+        ReflectionTestUtils.setField(pickupConsolidator, "maxOrders", 300);
+        ReflectionTestUtils.setField(pickupConsolidator, "meterRegistry", new SimpleMeterRegistry());
+        pickupConsolidator.init();
+        ReflectionTestUtils.setField(service, "pickupConsolidator", pickupConsolidator);
+        service.reloadFleet();
+        orders.keySet().forEach(service::enqueue);
+    }
+
+    @Benchmark
+    public double assignPending() {
+        service.assignQueued();
+        return meterRegistry.get("orders.assignment.assigned").counter().count();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(CourierAssignmentBenchmark.class);
+    }
+
+    // Somewhere within a 20 by 20 degree region
+    private static Address address(Random random, String street) {
+        Address address = new Address();
+        address.setStreet(street);
+        address.setLatitude(8.0 + random.nextDouble() * 20);
+        address.setLongitude(70.0 + random.nextDouble() * 20);
+        return address;
+    }
+}
@@ -0,0 +1,272 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.InMemoryMongo;
+import com.logistics.model.Address;
+import com.logistics.model.Courier;
+import com.logistics.model.ERole;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.Role;
+import com.logistics.model.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CourierAssignmentServiceTest {
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private MeterRegistry meterRegistry;
+    private OrderStatsService orderStatsService;
+    private CourierLoadBalancer courierLoadBalancer;
+    private CourierCoverageIndex courierCoverageIndex;
+    private CourierAssignmentService service;
+    private String courierId;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        meterRegistry = new SimpleMeterRegistry();
+        orderStatsService = Mockito.mock(OrderStatsService.class);
+
+        courierLoadBalancer = new CourierLoadBalancer();
+        ReflectionTestUtils.setField(courierLoadBalancer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(courierLoadBalancer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(courierLoadBalancer, "defaultCapacityKg", 1000.0);
+        ReflectionTestUtils.setField(courierLoadBalancer, "defaultCapacityM3", 8.0);
+
+        PickupConsolidator pickupConsolidator = new PickupConsolidator();
+        ReflectionTestUtils.setField(pickupConsolidator, "enabled", true);
+        ReflectionTestUtils.setField(pickupConsolidator, "radiusKm", 0.5);
+        ReflectionTestUtils.setField(pickupConsolidator, "windowMinutes", 120L);
+        ReflectionTestUtils.setField(pickupConsolidator, "maxWeightKg", 500.0);
+        ReflectionTestUtils.setField(pickupConsolidator, "maxVolumeM3", 3.5);
+        ReflectionTestUtils.setField(pickupConsolidator, "maxOrders", 300);
+        ReflectionTestUtils.setField(pickupConsolidator, "meterRegistry", meterRegistry);
+        pickupConsolidator.init();
+
+        courierCoverageIndex = Mockito.mock(CourierCoverageIndex.class);
+        Mockito.when(courierCoverageIndex.getActiveCouriers()).thenReturn(List.of());
+
+        service = new CourierAssignmentService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "courierCoverageIndex", courierCoverageIndex);
+        ReflectionTestUtils.setField(service, "orderStatsService", orderStatsService);
+        ReflectionTestUtils.setField(service, "pickupConsolidator", pickupConsolidator);
+        ReflectionTestUtils.setField(service, "courierLoadBalancer", courierLoadBalancer);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        ReflectionTestUtils.setField(service, "cellDegrees", 0.25);
+        ReflectionTestUtils.setField(service, "maxRings", 40);
+        ReflectionTestUtils.setField(service, "loadPenaltyKm", 5.0);
+        ReflectionTestUtils.setField(service, "maxOpenOrders", 40);
+        ReflectionTestUtils.setField(service, "utilizationPenaltyKm", 20.0);
+        service.registerMetrics();
+
+        courierId = insertCourier(null);
+        service.reloadFleet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void assignsOrdersAtOnePickupToOneCourier() {
+        String first = insertOrder();
+        String second = insertOrder();
+
+        service.enqueue(first);
+        service.enqueue(second);
+        service.assignQueued();
+
+        assertEquals(courierId, stored(first).getCourierId());
+        assertEquals(courierId, stored(second).getCourierId());
+        assertEquals(stored(first).getPickupBatchId(), stored(second).getPickupBatchId());
+        assertEquals(2, courierLoadBalancer.openOrders(courierId));
+        assertEquals(Set.of(first, second), recordedAssigned());
+    }
+
+    @Test
+    void lostRaceCreditsOnlyOrdersThatLanded() {
+        String first = insertOrder();
+        String second = insertOrder();
+
+        // Another instance assigns the second order between the re-read and the write
+        MongoTemplate spy = Mockito.spy(mongoTemplate);
+        Mockito.doAnswer(invocation -> {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(second)),
+                    new Update().set("courierId", "other"), Order.class);
+            return invocation.callRealMethod();
+        }).when(spy).bulkOps(Mockito.any(BulkOperations.BulkMode.class), Mockito.eq(Order.class));
+        ReflectionTestUtils.setField(service, "mongoTemplate", spy);
+
+        service.enqueue(first);
+        service.enqueue(second);
+        service.assignQueued();
+
+        assertEquals(courierId, stored(first).getCourierId());
+        assertEquals("other", stored(second).getCourierId());
+        assertEquals(1, courierLoadBalancer.openOrders(courierId));
+        assertEquals(Set.of(first), recordedAssigned());
+        assertEquals(1.0, meterRegistry.get("orders.assignment.assigned").counter().count());
+    }
+
+    @Test
+    void failedBatchReleasesClaimsAndRequeuesOrders() {
+        String first = insertOrder();
+        String second = insertOrder();
+
+        BulkOperations failing = Mockito.mock(BulkOperations.class, Mockito.RETURNS_SELF);
+        Mockito.when(failing.execute()).thenThrow(new IllegalStateException("connection reset"));
+        MongoTemplate spy = Mockito.spy(mongoTemplate);
+        Mockito.doReturn(failing).when(spy).bulkOps(Mockito.any(BulkOperations.BulkMode.class), Mockito.eq(Order.class));
+        ReflectionTestUtils.setField(service, "mongoTemplate", spy);
+
+        service.enqueue(first);
+        service.enqueue(second);
+        service.assignQueued();
+
+        assertEquals(0, courierLoadBalancer.openOrders(courierId));
+        assertEquals(0.0, meterRegistry.get("orders.consolidation.open").gauge().value());
+        assertEquals(2.0, meterRegistry.get("orders.assignment.queued").gauge().value());
+        Mockito.verify(orderStatsService, Mockito.never()).recordAssigned(Mockito.any());
+
+        // The next pass picks them up again
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        service.assignQueued();
+
+        assertEquals(courierId, stored(first).getCourierId());
+        assertEquals(courierId, stored(second).getCourierId());
+        assertEquals(2, courierLoadBalancer.openOrders(courierId));
+        assertEquals(Set.of(first, second), recordedAssigned());
+    }
+
+    @Test
+    void runsStayWithinTheOpenOrderCap() {
+        ReflectionTestUtils.setField(service, "maxOpenOrders", 2);
+        service.reloadFleet();
+        List<String> orderIds = List.of(insertOrder(), insertOrder(), insertOrder());
+
+        orderIds.forEach(service::enqueue);
+        service.assignQueued();
+
+        assertEquals(2, courierLoadBalancer.openOrders(courierId));
+        assertEquals(2, orderIds.stream().filter(id -> courierId.equals(stored(id).getCourierId())).count());
+    }
+
+    @Test
+    void runsAreCappedToTheChosenCompanysVehicle() {
+        Courier company = new Courier();
+        company.setId("fasttrack");
+        company.setName("FastTrack");
+        company.setVehicleCapacityKg(400);
+        company.setVehicleCapacityM3(1.0);
+        Mockito.when(courierCoverageIndex.getActiveCouriers()).thenReturn(List.of(company));
+        mongoTemplate.remove(new Query(), User.class);
+        String vanId = insertCourier("FastTrack");
+        service.reloadFleet();
+        // 0.4 m3 each: a run of all three would not fit the 1 m3 van, but a run of two does
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order order = order();
+            Order.Dimensions dimensions = new Order.Dimensions();
+            dimensions.setLength(100);
+            dimensions.setWidth(100);
+            dimensions.setHeight(40);
+            order.getProduct().setDimensions(dimensions);
+            order.getShipping().setCourierService("FastTrack");
+            orderIds.add(mongoTemplate.insert(order).getId());
+        }
+
+        orderIds.forEach(service::enqueue);
+        service.assignQueued();
+
+        List<Order> assignedToVan = orderIds.stream().map(this::stored)
+                .filter(order -> vanId.equals(order.getCourierId())).toList();
+        assertEquals(2, assignedToVan.size());
+        assertNotNull(assignedToVan.get(0).getPickupBatchId());
+        assertEquals(assignedToVan.get(0).getPickupBatchId(), assignedToVan.get(1).getPickupBatchId());
+    }
+
+    private String insertCourier(String company) {
+        User user = new User("courier@example.com", "hash");
+        user.setRoles(Set.of(new Role(ERole.ROLE_COURIER)));
+        user.setActive(true);
+        User.Profile profile = new User.Profile();
+        profile.setName("Courier");
+        profile.setCompany(company);
+        profile.setAddress(address(19.08, 72.88));
+        user.setProfile(profile);
+        return mongoTemplate.insert(user).getId();
+    }
+
+    private String insertOrder() {
+        return mongoTemplate.insert(order()).getId();
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        order.setId(new ObjectId().toHexString());
+        order.setSellerId("seller");
+        order.setBuyerId("buyer");
+        order.setStatus(OrderStatus.CONFIRMED);
+        Order.Product product = new Order.Product();
+        product.setWeight(2.0);
+        order.setProduct(product);
+        Order.Shipping shipping = new Order.Shipping();
+        shipping.setFrom(address(19.07, 72.87));
+        shipping.setTo(address(18.52, 73.85));
+        order.setShipping(shipping);
+        return order;
+    }
+
+    private static Address address(double latitude, double longitude) {
+        Address address = new Address();
+        address.setStreet("1 Market Street");
+        address.setCity("Mumbai");
+        address.setLatitude(latitude);
+        address.setLongitude(longitude);
+        return address;
+    }
+
+    private Order stored(String orderId) {
+        return mongoTemplate.findById(orderId, Order.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> recordedAssigned() {
+        ArgumentCaptor<Collection<Order>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(orderStatsService, Mockito.atLeastOnce()).recordAssigned(captor.capture());
+        List<String> ids = new ArrayList<>();
+        for (Collection<Order> orders : captor.getAllValues()) {
+            orders.forEach(order -> ids.add(order.getId()));
+        }
+        assertEquals(ids.size(), Set.copyOf(ids).size());
+        return Set.copyOf(ids);
+    }
+}
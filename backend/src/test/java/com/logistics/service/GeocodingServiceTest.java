@@ -0,0 +1,110 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.model.Address;
+
+class GeocodingServiceTest {
+
+    private static final String ROWS = String.join("\n",
+            "# country, postal code, place, admin name, admin code, ..., latitude, longitude, accuracy",
+            row("US", "10", "New York", "New York", "NY", 40.0f, -74.0f),
+            row("US", "100", "Manhattan", "New York", "NY", 40.7f, -74.0f),
+            row("US", "627", "Springfield", "Illinois", "IL", 39.8f, -89.6f),
+            row("US", "011", "Springfield", "Massachusetts", "MA", 42.1f, -72.6f),
+            row("CA", "100", "Elsewhere", "Ontario", "ON", 45.0f, -75.0f),
+            row("GB", "SW1A", "London", "England", "ENG", 51.5f, -0.14f),
+            "US\tbroken\tRow",
+            "US\t999\tNowhere\t\t\t\t\t\t\tnorth\t0\t4");
+
+    @Test
+    void postalCodeResolvesToItsLongestKnownPrefix() throws IOException {
+        GeocodingService.Gazetteer gazetteer = gazetteer();
+
+        assertEquals(40.7f, latitude(gazetteer, gazetteer.find("US", "10001", null, null)));
+        assertEquals(40.0f, latitude(gazetteer, gazetteer.find("US", "10999", null, null)));
+        assertEquals(-1, gazetteer.find("US", "20001", null, null));
+        assertEquals(6, gazetteer.size());
+    }
+
+    @Test
+    void postalCodesCompareByCountryIgnoringSpacingAndCase() throws IOException {
+        GeocodingService.Gazetteer gazetteer = gazetteer();
+
+        assertEquals(45.0f, latitude(gazetteer, gazetteer.find("CA", "100 42", null, null)));
+        assertEquals(51.5f, latitude(gazetteer, gazetteer.find("GB", "sw1a 1aa", null, null)));
+        assertEquals(-1, gazetteer.find("US", "sw1a 1aa", null, null));
+    }
+
+    @Test
+    void unknownPostalCodeFallsBackToCityInItsState() throws IOException {
+        GeocodingService.Gazetteer gazetteer = gazetteer();
+
+        assertEquals(42.1f, latitude(gazetteer, gazetteer.find("US", "55555", "springfield", "MA")));
+        assertEquals(42.1f, latitude(gazetteer, gazetteer.find("US", null, "Springfield ", "Massachusetts")));
+        // Without a known state the first Springfield read wins
+        assertEquals(39.8f, latitude(gazetteer, gazetteer.find("US", null, "Springfield", "Ohio")));
+        assertEquals(-1, gazetteer.find("US", null, "Atlantis", null));
+    }
+
+    @Test
+    void fillsMissingCoordinatesFromTheBundledGazetteer() {
+        GeocodingService service = new GeocodingService();
+        ReflectionTestUtils.setField(service, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(service, "gazetteerLocation", "classpath:geo/gazetteer.tsv");
+        ReflectionTestUtils.setField(service, "defaultCountry", "US");
+        ReflectionTestUtils.setField(service, "cacheSize", 16);
+        service.load();
+
+        Address address = address("10001", "New York", "USA");
+        assertTrue(service.fillCoordinates(address));
+        assertEquals(40.7128, address.getLatitude(), 1e-4);
+        assertEquals(-74.0060, address.getLongitude(), 1e-4);
+        assertSame(service.resolve(address), service.resolve(address("10001", "New York", "United States")));
+
+        Address placed = address("10001", "New York", null);
+        placed.setLatitude(1.0);
+        placed.setLongitude(2.0);
+        assertTrue(service.fillCoordinates(placed));
+        assertEquals(1.0, placed.getLatitude());
+
+        Address unknown = address("00000", "Atlantis", null);
+        assertFalse(service.fillCoordinates(unknown));
+        assertNull(service.resolve(unknown));
+        assertFalse(service.fillCoordinates(null));
+    }
+
+    private static GeocodingService.Gazetteer gazetteer() throws IOException {
+        return GeocodingService.Gazetteer.read(new BufferedReader(new StringReader(ROWS)));
+    }
+
+    private static float latitude(GeocodingService.Gazetteer gazetteer, int entry) {
+        return gazetteer.latitudes[entry];
+    }
+
+    private static String row(String country, String postalCode, String place, String adminName, String adminCode,
+                              float latitude, float longitude) {
+        return String.join("\t", country, postalCode, place, adminName, adminCode, "", "", "", "",
+                Float.toString(latitude), Float.toString(longitude), "4");
+    }
+
+    private static Address address(String postalCode, String city, String country) {
+        Address address = new Address();
+        address.setPostalCode(postalCode);
+        address.setCity(city);
+        address.setCountry(country);
+        return address;
+    }
+}
@@ -0,0 +1,75 @@
+package com.logistics.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.Benchmarks;
+
+/**
+ * Cost of one number from the node-scoped generator against the random UUID prefix it replaced,
+ * on one thread and on eight contending for the shared sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderNumberGeneratorBenchmark {
+
+    private SnowflakeOrderNumberGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new SnowflakeOrderNumberGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 1);
+        generator.init();
+    }
+
+    @Benchmark
+    public String orderNumber() {
+        return generator.nextOrderNumber();
+    }
+
+    @Benchmark
+    public String trackingNumber() {
+        return generator.nextTrackingNumber();
+    }
+
+    // What Order and Shipping did before
+    @Benchmark
+    public String uuidNumber() {
+        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String orderNumberContended() {
+        return generator.nextOrderNumber();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidNumberContended() {
+        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(OrderNumberGeneratorBenchmark.class);
+    }
+}
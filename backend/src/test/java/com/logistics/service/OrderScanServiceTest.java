@@ -0,0 +1,161 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.InMemoryMongo;
+import com.logistics.dto.BulkRowResult;
+import com.logistics.dto.ScanRequest;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderScanServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private OrderStatsService orderStatsService;
+    private OrderScanService service;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        orderStatsService = Mockito.mock(OrderStatsService.class);
+
+        service = new OrderScanService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "userRepository", Mockito.mock(UserRepository.class));
+        ReflectionTestUtils.setField(service, "orderStatsService", orderStatsService);
+        ReflectionTestUtils.setField(service, "emailService", Mockito.mock(EmailService.class));
+        ReflectionTestUtils.setField(service, "courierAssignmentService", Mockito.mock(CourierAssignmentService.class));
+        ReflectionTestUtils.setField(service, "etaService", Mockito.mock(EtaService.class));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxBatchSize", 500);
+        service.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void scansInOrderMoveTheStatusForward() {
+        String orderId = insertOrder(OrderStatus.CONFIRMED, T0);
+
+        List<BulkRowResult> results = service.applyScans(List.of(
+                scan(orderId, OrderStatus.SHIPPED, T0.plusHours(1)),
+                scan(orderId, OrderStatus.IN_TRANSIT, T0.plusHours(2))), "courier");
+
+        Order stored = mongoTemplate.findById(orderId, Order.class);
+        assertEquals(OrderStatus.IN_TRANSIT, stored.getStatus());
+        assertEquals(T0.plusHours(2), stored.getUpdatedAt());
+        assertEquals(2, stored.getTimeline().size());
+        assertEquals(2L, stored.getVersion());
+        assertEquals(Boolean.TRUE, results.get(0).getCurrent());
+        assertEquals(Boolean.TRUE, results.get(1).getCurrent());
+        assertEquals(List.of(OrderStatus.SHIPPED, OrderStatus.IN_TRANSIT), recordedTargets());
+    }
+
+    @Test
+    void lateScanOnlyAddsItsEvent() {
+        String orderId = insertOrder(OrderStatus.IN_TRANSIT, T0.plusHours(2));
+
+        List<BulkRowResult> results = service.applyScans(List.of(
+                scan(orderId, OrderStatus.SHIPPED, T0.plusHours(1))), "courier");
+
+        Order stored = mongoTemplate.findById(orderId, Order.class);
+        assertEquals(OrderStatus.IN_TRANSIT, stored.getStatus());
+        assertEquals(T0.plusHours(2), stored.getUpdatedAt());
+        assertEquals(1, stored.getTimeline().size());
+        assertEquals(OrderStatus.SHIPPED.name(), stored.getTimeline().get(0).getStatus());
+        assertEquals(1L, stored.getVersion());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(Boolean.FALSE, results.get(0).getCurrent());
+        assertEquals(List.of(), recordedTargets());
+    }
+
+    @Test
+    void olderScanLaterInTheBatchDoesNotUndoANewerOne() {
+        String orderId = insertOrder(OrderStatus.CONFIRMED, T0);
+
+        List<BulkRowResult> results = service.applyScans(List.of(
+                scan(orderId, OrderStatus.OUT_FOR_DELIVERY, T0.plusHours(3)),
+                scan(orderId, OrderStatus.IN_TRANSIT, T0.plusHours(2))), "courier");
+
+        Order stored = mongoTemplate.findById(orderId, Order.class);
+        assertEquals(OrderStatus.OUT_FOR_DELIVERY, stored.getStatus());
+        assertEquals(2, stored.getTimeline().size());
+        assertEquals(Boolean.FALSE, results.get(1).getCurrent());
+        assertEquals(List.of(OrderStatus.OUT_FOR_DELIVERY), recordedTargets());
+    }
+
+    @Test
+    void newerUpdateSinceTheSnapshotTurnsTheScanIntoAnEventOnly() {
+        String orderId = insertOrder(OrderStatus.CONFIRMED, T0);
+        MongoTemplate spy = Mockito.spy(mongoTemplate);
+        // Another writer delivers the order right after the snapshot is read
+        Mockito.doAnswer(invocation -> {
+            Object snapshots = invocation.callRealMethod();
+            Order delivered = mongoTemplate.findById(orderId, Order.class);
+            delivered.setStatus(OrderStatus.DELIVERED);
+            delivered.setUpdatedAt(T0.plusHours(5));
+            mongoTemplate.save(delivered);
+            return snapshots;
+        }).when(spy).find(Mockito.any(), Mockito.eq(Order.class));
+        ReflectionTestUtils.setField(service, "mongoTemplate", spy);
+
+        List<BulkRowResult> results = service.applyScans(List.of(scan(orderId, OrderStatus.IN_TRANSIT, T0.plusHours(1))), "courier");
+
+        Order stored = mongoTemplate.findById(orderId, Order.class);
+        assertEquals(OrderStatus.DELIVERED, stored.getStatus());
+        assertEquals(1, stored.getTimeline().size());
+        assertEquals(Boolean.FALSE, results.get(0).getCurrent());
+        assertEquals(List.of(), recordedTargets());
+    }
+
+    private String insertOrder(OrderStatus status, LocalDateTime updatedAt) {
+        Order order = new Order();
+        order.setOrderNumber("ORD-" + status);
+        order.setStatus(status);
+        order.setUpdatedAt(updatedAt);
+        order.setVersion(0L);
+        return mongoTemplate.insert(order).getId();
+    }
+
+    private static ScanRequest scan(String orderId, OrderStatus status, LocalDateTime timestamp) {
+        ScanRequest scan = new ScanRequest();
+        scan.setOrderId(orderId);
+        scan.setStatus(status.name());
+        scan.setLocation("Hub");
+        scan.setTimestamp(timestamp);
+        return scan;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OrderStatus> recordedTargets() {
+        ArgumentCaptor<Collection<OrderStatsService.Transition>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(orderStatsService).recordTransitions(captor.capture());
+        List<OrderStatus> targets = new ArrayList<>();
+        captor.getValue().forEach(transition -> targets.add(transition.getTo()));
+        return targets;
+    }
+}
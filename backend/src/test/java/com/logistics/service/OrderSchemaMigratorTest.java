@@ -0,0 +1,158 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.InMemoryMongo;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderSchemaMigratorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private MeterRegistry meterRegistry;
+    private OrderSchemaMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        meterRegistry = new SimpleMeterRegistry();
+
+        migrator = new OrderSchemaMigrator();
+        ReflectionTestUtils.setField(migrator, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(migrator, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(migrator, "enabled", true);
+        ReflectionTestUtils.setField(migrator, "batchSize", 2);
+        migrator.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void rewritesV1OrdersIntoTheCurrentSchema() {
+        ObjectId first = insertRaw(v1Order("ORD-1"));
+        insertRaw(v1Order("ORD-2"));
+        insertRaw(v1Order("ORD-3"));
+
+        migrateUntilDone();
+
+        Document stored = raw(first);
+        assertEquals(Order.SCHEMA_VERSION, stored.getInteger("_v"));
+        Document event = (Document) stored.getList("timeline", Document.class).get(0);
+        assertEquals(OrderStatus.PENDING.name(), event.getString("s"));
+        assertFalse(event.containsKey("d"), "the default description is left out");
+        Document from = stored.get("shipping", Document.class).get("from", Document.class);
+        assertEquals(List.of(72.87, 19.07), from.get("location", Document.class).getList("coordinates", Double.class));
+
+        Order order = mongoTemplate.findById(first.toHexString(), Order.class);
+        assertEquals(OrderStatus.IN_TRANSIT, order.getStatus());
+        assertEquals(T0, order.getCreatedAt());
+        assertEquals(OrderStatus.PENDING.getDescription(), order.getTimeline().get(0).getDescription());
+        assertEquals(3.0, meterRegistry.get("orders.migration.migrated").counter().count());
+        assertEquals(0.0, meterRegistry.get("orders.migration.remaining").gauge().value());
+    }
+
+    @Test
+    void concurrentUpdateWinsAndTheOrderIsRetried() {
+        ObjectId orderId = insertRaw(v1Order("ORD-1"));
+        MongoTemplate spy = Mockito.spy(mongoTemplate);
+        // The order changes between the read and the rewrite, once
+        Mockito.doAnswer(invocation -> {
+            mongoTemplate.getCollection("orders").updateOne(new Document("_id", orderId),
+                    new Document("$set", new Document("courierId", "courier")).append("$inc", new Document("version", 1)));
+            return invocation.callRealMethod();
+        }).doCallRealMethod().when(spy).bulkOps(Mockito.any(BulkOperations.BulkMode.class), Mockito.eq(Order.class));
+        ReflectionTestUtils.setField(migrator, "mongoTemplate", spy);
+
+        migrator.migrateBatch();
+
+        assertNull(raw(orderId).get("_v"));
+        assertEquals(1.0, meterRegistry.get("orders.migration.conflicts").counter().count());
+
+        migrateUntilDone();
+
+        Document stored = raw(orderId);
+        assertEquals(Order.SCHEMA_VERSION, stored.getInteger("_v"));
+        assertEquals("courier", stored.getString("courierId"));
+        assertEquals(2L, stored.getLong("version"));
+        assertEquals(1.0, meterRegistry.get("orders.migration.migrated").counter().count());
+    }
+
+    @Test
+    void unreadableOrdersAreSkippedAndCounted() {
+        ObjectId unknownStatus = insertRaw(v1Order("ORD-1").append("status", "LOST"));
+        ObjectId badDate = insertRaw(v1Order("ORD-2").append("updatedAt", "yesterday"));
+        ObjectId offsetDate = insertRaw(v1Order("ORD-3").append("updatedAt", "2024-05-01T09:00:00Z"));
+        ObjectId plain = insertRaw(v1Order("ORD-4"));
+
+        migrateUntilDone();
+
+        assertNull(raw(unknownStatus).get("_v"));
+        assertNull(raw(badDate).get("_v"));
+        assertEquals(Order.SCHEMA_VERSION, raw(offsetDate).getInteger("_v"));
+        assertEquals(Order.SCHEMA_VERSION, raw(plain).getInteger("_v"));
+        assertEquals(2.0, meterRegistry.get("orders.migration.failed").counter().count());
+        assertEquals(2.0, meterRegistry.get("orders.migration.migrated").counter().count());
+        assertEquals(2.0, meterRegistry.get("orders.migration.remaining").gauge().value());
+    }
+
+    private void migrateUntilDone() {
+        for (int tick = 0; tick < 10 && !(Boolean) ReflectionTestUtils.getField(migrator, "done"); tick++) {
+            migrator.migrateBatch();
+        }
+    }
+
+    // As reflection mapping stored orders: no _v, verbose timeline events and no GeoJSON locations
+    private static Document v1Order(String orderNumber) {
+        Date created = Date.from(T0.atZone(ZoneId.systemDefault()).toInstant());
+        return new Document("orderNumber", orderNumber)
+                .append("sellerId", "seller")
+                .append("status", OrderStatus.IN_TRANSIT.name())
+                .append("createdAt", created)
+                .append("updatedAt", created)
+                .append("version", 1L)
+                .append("shipping", new Document("trackingNumber", "TRK-" + orderNumber)
+                        .append("from", new Document("city", "Mumbai").append("latitude", 19.07).append("longitude", 72.87))
+                        .append("to", new Document("city", "Pune").append("latitude", 18.52).append("longitude", 73.85)))
+                .append("timeline", List.of(new Document("status", OrderStatus.PENDING.getDescription())
+                        .append("description", OrderStatus.PENDING.getDescription())
+                        .append("location", "Seller Location")
+                        .append("timestamp", created)));
+    }
+
+    private ObjectId insertRaw(Document document) {
+        ObjectId id = new ObjectId();
+        mongoTemplate.getCollection("orders").insertOne(document.append("_id", id));
+        return id;
+    }
+
+    private Document raw(ObjectId id) {
+        return mongoTemplate.getCollection("orders").find(new Document("_id", id)).first();
+    }
+}
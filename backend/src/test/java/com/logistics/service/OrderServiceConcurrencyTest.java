@@ -0,0 +1,122 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.InMemoryMongo;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.model.TrackingEvent;
+import com.logistics.repository.OrderRepository;
+import com.logistics.repository.OrderRepositoryImpl;
+import com.logistics.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Status updates and tracking events written to one order from many threads at once must all
+ * land: each is a single in-place update, so none may overwrite another's timeline entry.
+ */
+class OrderServiceConcurrencyTest {
+
+    private static final int WRITERS = 64;
+
+    private InMemoryMongo mongo;
+    private OrderRepository orderRepository;
+    private OrderService orderService;
+    private TrackingService trackingService;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        MongoTemplate mongoTemplate = mongo.template();
+
+        OrderRepositoryImpl custom = new OrderRepositoryImpl();
+        ReflectionTestUtils.setField(custom, "mongoTemplate", mongoTemplate);
+        orderRepository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(OrderRepository.class, RepositoryFragments.just(custom));
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findById(Mockito.anyString())).thenReturn(Optional.empty());
+
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(orderService, "emailService", Mockito.mock(EmailService.class));
+        ReflectionTestUtils.setField(orderService, "orderStatsService", Mockito.mock(OrderStatsService.class));
+        ReflectionTestUtils.setField(orderService, "courierAssignmentService", Mockito.mock(CourierAssignmentService.class));
+        ReflectionTestUtils.setField(orderService, "etaService", Mockito.mock(EtaService.class));
+        ReflectionTestUtils.setField(orderService, "meterRegistry", new SimpleMeterRegistry());
+        orderService.registerMetrics();
+
+        trackingService = new TrackingService();
+        ReflectionTestUtils.setField(trackingService, "orderRepository", orderRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void parallelUpdatesAllLandOnTheTimeline() throws Exception {
+        Order order = new Order();
+        order.setOrderNumber("ORD-CONCURRENT");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setBuyerId("buyer");
+        order = orderRepository.save(order);
+        String orderId = order.getId();
+        int eventsBefore = order.getTimeline().size();
+        long versionBefore = order.getVersion();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>(WRITERS);
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                int writer = i;
+                writes.add(pool.submit(() -> {
+                    start.await();
+                    if (writer % 2 == 0) {
+                        orderService.updateOrderStatus(orderId, OrderStatus.IN_TRANSIT, "Hub " + writer,
+                                "Scan " + writer, "courier");
+                    } else {
+                        trackingService.addTrackingEvent(orderId, "LOCATION_UPDATE", "Scan " + writer,
+                                "Hub " + writer, "courier");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Order stored = orderRepository.findById(orderId).orElse(null);
+        assertNotNull(stored);
+        assertEquals(eventsBefore + WRITERS, stored.getTimeline().size());
+        assertEquals(versionBefore + WRITERS, stored.getVersion());
+        assertEquals(WRITERS, stored.getTimeline().stream().map(TrackingEvent::getDescription).distinct().count());
+        assertEquals(OrderStatus.IN_TRANSIT, stored.getStatus());
+    }
+}
@@ -0,0 +1,123 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.InMemoryMongo;
+import com.logistics.model.OrderCounter;
+
+class OrderStatsServiceTest {
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private OrderStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        service = new OrderStatsService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "rebuildBatchSize", 2);
+        ReflectionTestUtils.setField(service, "rebuildLeaseMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void rebuildCorrectsCountersByDifference() {
+        insertOrder("s1", "b1", "DELIVERED", 20.0);
+        insertOrder("s1", "b2", "PENDING", 5.0);
+        insertOrder("s2", "b1", "PENDING", 7.5);
+        // Drifted: one PENDING too many and revenue missing
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is("sellerId:s1")),
+                new Update().set("byStatus.PENDING", 2L).set("partyField", "sellerId").set("partyId", "s1"), OrderCounter.class);
+
+        service.rebuild();
+
+        OrderCounter s1 = counter("sellerId:s1");
+        assertEquals(Map.of("DELIVERED", 1L, "PENDING", 1L), s1.getByStatus());
+        assertEquals(20.0, s1.getDeliveredRevenue(), 1e-9);
+        assertEquals(1L, s1.getDeliveriesPerDay().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(Map.of("DELIVERED", 1L, "PENDING", 1L), counter("buyerId:b1").getByStatus());
+        assertEquals(Map.of("PENDING", 1L), counter("sellerId:s2").getByStatus());
+        assertFalse(mongoTemplate.collectionExists("order_counters_rebuild"));
+    }
+
+    @Test
+    void rebuildKeepsTransitionsRecordedWhileItRuns() {
+        insertOrder("s1", "b1", "PENDING", 5.0);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is("sellerId:s1")),
+                new Update().set("byStatus.PENDING", 1L).set("partyField", "sellerId").set("partyId", "s1"), OrderCounter.class);
+
+        // The order is delivered after the recount read it but before its counter is reconciled
+        MongoTemplate spy = Mockito.spy(mongoTemplate);
+        AtomicBoolean delivered = new AtomicBoolean();
+        Mockito.doAnswer(invocation -> {
+            if (delivered.compareAndSet(false, true)) {
+                mongoTemplate.updateFirst(new Query(), new Update().set("status", "DELIVERED"), "orders");
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is("sellerId:s1")),
+                        new Update().inc("byStatus.PENDING", -1L).inc("byStatus.DELIVERED", 1L), OrderCounter.class);
+            }
+            return invocation.callRealMethod();
+        }).when(spy).bulkOps(Mockito.any(BulkOperations.BulkMode.class), Mockito.eq(OrderCounter.class));
+        ReflectionTestUtils.setField(service, "mongoTemplate", spy);
+
+        service.rebuild();
+
+        Map<String, Long> byStatus = counter("sellerId:s1").getByStatus();
+        assertEquals(0L, byStatus.get("PENDING"));
+        assertEquals(1L, byStatus.get("DELIVERED"));
+    }
+
+    @Test
+    void rebuildZeroesPartiesWithoutOrders() {
+        insertOrder("s1", "b1", "PENDING", 5.0);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is("courierId:gone")),
+                new Update().set("byStatus.IN_TRANSIT", 3L).set("partyField", "courierId").set("partyId", "gone"), OrderCounter.class);
+
+        service.rebuild();
+
+        assertEquals(0L, counter("courierId:gone").getByStatus().get("IN_TRANSIT"));
+        assertEquals(Map.of("PENDING", 1L), counter("sellerId:s1").getByStatus());
+    }
+
+    @Test
+    void rebuildSkipsWhileAnotherInstanceHoldsTheLease() {
+        insertOrder("s1", "b1", "PENDING", 5.0);
+        mongoTemplate.insert(new Document("_id", "order-counter-rebuild").append("owner", "other")
+                .append("expiresAt", new Date(System.currentTimeMillis() + 60_000)), "job_leases");
+
+        service.rebuild();
+
+        assertEquals(0, mongoTemplate.count(new Query(), OrderCounter.class));
+    }
+
+    private void insertOrder(String sellerId, String buyerId, String status, double total) {
+        mongoTemplate.insert(new Document("sellerId", sellerId).append("buyerId", buyerId).append("status", status)
+                .append("pricing", new Document("total", total)).append("updatedAt", new Date()), "orders");
+    }
+
+    private OrderCounter counter(String id) {
+        return mongoTemplate.findById(id, OrderCounter.class);
+    }
+}
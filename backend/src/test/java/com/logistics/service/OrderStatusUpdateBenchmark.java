@@ -0,0 +1,149 @@
+package com.logistics.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.Benchmarks;
+import com.logistics.InMemoryMongo;
+import com.logistics.dto.BulkRowResult;
+import com.logistics.dto.ScanRequest;
+import com.logistics.model.Order;
+import com.logistics.model.OrderStatus;
+import com.logistics.repository.OrderRepository;
+import com.logistics.repository.OrderRepositoryImpl;
+import com.logistics.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * One status change for each of a batch of orders, sent as a single scan batch and as that many
+ * calls to {@link OrderService#updateOrderStatus}, against the in-memory MongoDB wire server.
+ * Counters, ETAs and emails are stubbed out, so the gap is round trips and per-call overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderStatusUpdateBenchmark {
+
+    @Param({"50", "500"})
+    public int orders;
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private OrderScanService scanService;
+    private OrderService orderService;
+    private final List<String> orderIds = new ArrayList<>();
+    private final List<ScanRequest> scans = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        UserRepository userRepository = Mockito.mock(UserRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(userRepository.findById(Mockito.any())).thenReturn(Optional.empty());
+
+        scanService = new OrderScanService();
+        ReflectionTestUtils.setField(scanService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(scanService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(scanService, "orderStatsService", stub(OrderStatsService.class));
+        ReflectionTestUtils.setField(scanService, "emailService", stub(EmailService.class));
+        ReflectionTestUtils.setField(scanService, "courierAssignmentService", stub(CourierAssignmentService.class));
+        ReflectionTestUtils.setField(scanService, "etaService", stub(EtaService.class));
+        ReflectionTestUtils.setField(scanService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scanService, "maxBatchSize", 500);
+        scanService.registerMetrics();
+
+        OrderRepositoryImpl custom = new OrderRepositoryImpl();
+        ReflectionTestUtils.setField(custom, "mongoTemplate", mongoTemplate);
+        OrderRepository orderRepository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(OrderRepository.class, RepositoryFragments.just(custom));
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(orderService, "emailService", stub(EmailService.class));
+        ReflectionTestUtils.setField(orderService, "orderStatsService", stub(OrderStatsService.class));
+        ReflectionTestUtils.setField(orderService, "courierAssignmentService", stub(CourierAssignmentService.class));
+        ReflectionTestUtils.setField(orderService, "etaService", stub(EtaService.class));
+        ReflectionTestUtils.setField(orderService, "meterRegistry", new SimpleMeterRegistry());
+        orderService.registerMetrics();
+    }
+
+    // Fresh orders each iteration, so timelines do not grow across the whole run
+    @Setup(Level.Iteration)
+    public void insertOrders() {
+        mongoTemplate.remove(new Query(), Order.class);
+        orderIds.clear();
+        scans.clear();
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order();
+            order.setOrderNumber("ORD-" + i);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setVersion(0L);
+            Order.Shipping shipping = new Order.Shipping();
+            shipping.setTrackingNumber("TRK-" + i);
+            order.setShipping(shipping);
+            String orderId = mongoTemplate.insert(order).getId();
+            orderIds.add(orderId);
+
+            ScanRequest scan = new ScanRequest();
+            scan.setOrderId(orderId);
+            scan.setStatus(OrderStatus.IN_TRANSIT.name());
+            scan.setLocation("Hub");
+            scans.add(scan);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public List<BulkRowResult> scanBatch() {
+        return scanService.applyScans(scans, "courier");
+    }
+
+    @Benchmark
+    public Order singleUpdates() {
+        Order last = null;
+        for (String orderId : orderIds) {
+            last = orderService.updateOrderStatus(orderId, OrderStatus.IN_TRANSIT, "Hub", null, "courier");
+        }
+        return last;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(OrderStatusUpdateBenchmark.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.logistics.InMemoryMongo;
+import com.logistics.model.ERole;
+import com.logistics.model.Role;
+import com.logistics.model.User;
+
+class RoleRegistryTest {
+
+    private InMemoryMongo mongo;
+    private MongoTemplate mongoTemplate;
+    private RoleRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        mongoTemplate = mongo.template();
+        registry = new RoleRegistry();
+        ReflectionTestUtils.setField(registry, "mongoTemplate", mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void usersMayShareARoleOnceTheEmbeddedUniqueIndexIsDropped() {
+        // As left behind by @Indexed(unique = true) on the embedded Role.name
+        mongoTemplate.indexOps(User.class).ensureIndex(new Index().on("roles.name", Sort.Direction.ASC).unique().named("roles.name"));
+
+        registry.ensureIndexes();
+
+        Role buyer = new Role(ERole.ROLE_BUYER);
+        mongoTemplate.insert(user("first@example.com", buyer));
+        mongoTemplate.insert(user("second@example.com", buyer));
+        assertEquals(2, mongoTemplate.count(new Query(), User.class));
+    }
+
+    @Test
+    void roleNamesStayUniqueInTheRolesCollection() {
+        registry.ensureIndexes();
+
+        mongoTemplate.insert(new Role(ERole.ROLE_SELLER));
+        assertThrows(DuplicateKeyException.class, () -> mongoTemplate.insert(new Role(ERole.ROLE_SELLER)));
+    }
+
+    private static User user(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setRoles(Set.of(role));
+        return user;
+    }
+}
@@ -0,0 +1,62 @@
+package com.logistics.service;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logistics.Benchmarks;
+
+/**
+ * Planning one courier's route over seeded random stops: the nearest-neighbour construction
+ * alone, then with 2-opt and Or-opt run to convergence and within the default 250 ms budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoutePlannerBenchmark {
+
+    @Param({"50", "200", "1000"})
+    public int stops;
+
+    private float[][] distances;
+
+    @Setup
+    public void setUp() {
+        distances = RoutePlannerServiceTest.instance(new Random(42), stops);
+    }
+
+    @Benchmark
+    public int[] nearestNeighbour() {
+        return RoutePlannerService.nearestNeighbour(distances, 0);
+    }
+
+    @Benchmark
+    public int[] optimizeToConvergence() {
+        return RoutePlannerService.optimize(distances, 0, System.nanoTime() + TimeUnit.MINUTES.toNanos(1));
+    }
+
+    @Benchmark
+    public int[] optimizeWithinBudget() {
+        return RoutePlannerService.optimize(distances, 0, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(RoutePlannerBenchmark.class);
+    }
+}
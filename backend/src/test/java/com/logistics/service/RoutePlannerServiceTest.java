@@ -0,0 +1,83 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RoutePlannerServiceTest {
+
+    @Test
+    void optimizedRouteIsNeverLongerThanNearestNeighbour() {
+        for (int size : new int[] {2, 3, 5, 20, 100, 300}) {
+            for (long seed = 1; seed <= 10; seed++) {
+                float[][] distances = instance(new Random(seed * 1000 + size), size);
+                int first = (int) (seed % size);
+
+                int[] nearest = RoutePlannerService.nearestNeighbour(distances, first);
+                int[] optimized = RoutePlannerService.optimize(distances, first, deadline(10));
+
+                assertPath(optimized, first);
+                double nearestKm = RoutePlannerService.length(distances, nearest);
+                double optimizedKm = RoutePlannerService.length(distances, optimized);
+                assertTrue(optimizedKm <= nearestKm + 1e-3,
+                        size + " stops, seed " + seed + ": " + optimizedKm + " km > " + nearestKm + " km");
+            }
+        }
+    }
+
+    @Test
+    void improvementFixesAGreedyDetour() {
+        // From 0 the greedy path takes 1, then 3, then doubles back to -1.5
+        float[] positions = {0f, 1f, 3f, -1.5f};
+        float[][] distances = new float[positions.length][positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            for (int j = 0; j < positions.length; j++) {
+                distances[i][j] = Math.abs(positions[i] - positions[j]);
+            }
+        }
+
+        assertEquals(7.5, RoutePlannerService.length(distances, RoutePlannerService.nearestNeighbour(distances, 0)), 1e-6);
+        int[] optimized = RoutePlannerService.optimize(distances, 0, deadline(10));
+        assertArrayEquals(new int[] {0, 3, 1, 2}, optimized);
+        assertEquals(6.0, RoutePlannerService.length(distances, optimized), 1e-6);
+    }
+
+    @Test
+    void expiredBudgetKeepsTheNearestNeighbourRoute() {
+        float[][] distances = instance(new Random(7), 200);
+
+        int[] optimized = RoutePlannerService.optimize(distances, 0, System.nanoTime() - 1);
+
+        assertArrayEquals(RoutePlannerService.nearestNeighbour(distances, 0), optimized);
+    }
+
+    // Stops scattered over roughly 50 by 50 km
+    static float[][] instance(Random random, int size) {
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = 19.0 + random.nextDouble() * 0.45;
+            longitudes[i] = 72.8 + random.nextDouble() * 0.45;
+        }
+        return RoutePlannerService.distances(latitudes, longitudes);
+    }
+
+    private static long deadline(long seconds) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    private static void assertPath(int[] tour, int first) {
+        assertEquals(first, tour[0]);
+        int[] sorted = tour.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+}
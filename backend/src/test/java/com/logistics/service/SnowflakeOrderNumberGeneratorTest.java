@@ -0,0 +1,115 @@
+package com.logistics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    private SnowflakeOrderNumberGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new SnowflakeOrderNumberGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 7);
+        generator.init();
+    }
+
+    @Test
+    void issuedTrackingNumbersVerify() {
+        for (int i = 0; i < 1000; i++) {
+            String trackingNumber = generator.nextTrackingNumber();
+            assertEquals(trackingNumber, generator.normalizeTrackingNumber(trackingNumber));
+        }
+    }
+
+    @Test
+    void checkCharacterCatchesEverySingleCharacterError() {
+        String trackingNumber = generator.nextTrackingNumber();
+        for (int i = 4; i < trackingNumber.length(); i++) {
+            for (char c : ALPHABET.toCharArray()) {
+                if (c == trackingNumber.charAt(i)) {
+                    continue;
+                }
+                String typo = trackingNumber.substring(0, i) + c + trackingNumber.substring(i + 1);
+                assertNull(generator.normalizeTrackingNumber(typo), typo);
+            }
+        }
+    }
+
+    @Test
+    void checkCharacterCatchesMostAdjacentTranspositions() {
+        int swapped = 0;
+        int caught = 0;
+        for (int n = 0; n < 200; n++) {
+            String trackingNumber = generator.nextTrackingNumber();
+            for (int i = 4; i < trackingNumber.length() - 1; i++) {
+                if (trackingNumber.charAt(i) == trackingNumber.charAt(i + 1)) {
+                    continue;
+                }
+                String typo = trackingNumber.substring(0, i) + trackingNumber.charAt(i + 1) + trackingNumber.charAt(i)
+                        + trackingNumber.substring(i + 2);
+                swapped++;
+                if (generator.normalizeTrackingNumber(typo) == null) {
+                    caught++;
+                }
+            }
+        }
+        assertTrue(caught > swapped * 0.9, caught + " of " + swapped);
+    }
+
+    @Test
+    void normalizesCaseAndMisreadCharacters() {
+        String trackingNumber = generator.nextTrackingNumber();
+        String typed = " " + trackingNumber.toLowerCase().replace('0', 'o').replace('1', 'l') + " ";
+        assertEquals(trackingNumber, generator.normalizeTrackingNumber(typed));
+    }
+
+    @Test
+    void acceptsLegacyTrackingNumbers() {
+        assertEquals("TRK-1A2B3C4D", generator.normalizeTrackingNumber("trk-1a2b3c4d"));
+        assertNull(generator.normalizeTrackingNumber("TRK-1A2B-C4D"));
+        assertNull(generator.normalizeTrackingNumber("ORD-1A2B3C4D"));
+    }
+
+    @Test
+    void idsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<long[]>> batches = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                batches.add(pool.submit(() -> {
+                    long[] ids = new long[20_000];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> batch : batches) {
+                long[] ids = batch.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(seen.add(ids[i]));
+                    assertTrue(i == 0 || ids[i] > ids[i - 1]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -3,6 +3,7 @@
 class CourierDashboard {
   constructor() {
     this.orders = [];
+    this.nextCursor = null;
     this.init();
   }
 
@@ -39,7 +40,9 @@ class CourierDashboard {
 
   async loadOrders() {
     try {
-      this.orders = await Utils.makeAPICall('/orders');
+      const page = await Utils.makeAPICall('/orders');
+      this.orders = page.orders;
+      this.nextCursor = page.nextCursor;
       this.displayOrders();
     } catch (error) {
       console.error('Failed to load orders:', error);
@@ -47,10 +50,27 @@ class CourierDashboard {
     }
   }
 
+  // Appends the next page; the button is hidden once the server reports no more orders
+  async loadMoreOrders() {
+    if (!this.nextCursor) return;
+    try {
+      const page = await Utils.makeAPICall(`/orders?cursor=${encodeURIComponent(this.nextCursor)}`);
+      this.orders = this.orders.concat(page.orders);
+      this.nextCursor = page.nextCursor;
+      this.displayOrders();
+    } catch (error) {
+      console.error('Failed to load more orders:', error);
+      Utils.showNotification('Failed to load more orders.', 'error');
+    }
+  }
+
   displayOrders() {
     const tbody = document.getElementById('ordersTableBody');
     if (!tbody) return;
 
+    const loadMore = document.getElementById('loadMoreOrders');
+    if (loadMore) loadMore.style.display = this.nextCursor ? '' : 'none';
+
     if (this.orders.length === 0) {
       tbody.innerHTML = '<tr><td colspan="7" style="text-align: center;">No assigned orders found</td></tr>';
       return;
@@ -59,11 +79,11 @@ class CourierDashboard {
     tbody.innerHTML = this.orders.map(order => `
       <tr>
         <td><strong>${order.orderNumber}</strong></td>
-        <td>${order.product.name}</td>
-        <td>${this.formatRoute(order.shipping)}</td>
+        <td>${order.productName}</td>
+        <td>${this.formatRoute(order)}</td>
         <td><span class="status-badge status-${order.status.toLowerCase().replace('_', '-')}">${order.status.replace('_', ' ')}</span></td>
         <td>${this.getPriorityBadge(order)}</td>
-        <td>${Utils.formatDate(order.shipping.estimatedDelivery)}</td>
+        <td>${Utils.formatDate(order.estimatedDelivery)}</td>
         <td>
           <button onclick="courierDashboard.openUpdateStatusModal('${order.id}')" class="btn btn-primary" style="margin-right: 0.5rem;">Update</button>
           <button onclick="courierDashboard.viewRoute('${order.id}')" class="btn btn-secondary">Route</button>
@@ -72,13 +92,13 @@ class CourierDashboard {
     `).join('');
   }
 
-  formatRoute(shipping) {
-    return `${shipping.from.city} → ${shipping.to.city}`;
+  formatRoute(order) {
+    return `${order.originCity} → ${order.destinationCity}`;
   }
 
   getPriorityBadge(order) {
     const now = new Date();
-    const delivery = new Date(order.shipping.estimatedDelivery);
+    const delivery = new Date(order.estimatedDelivery);
     const hoursLeft = (delivery - now) / (1000 * 60 * 60);
 
     if (hoursLeft < 24) {
@@ -91,26 +111,17 @@ class CourierDashboard {
   }
 
   async loadStats() {
-    if (this.orders.length === 0) return;
-
-    const assignedOrders = this.orders.length;
-    const inTransitOrders = this.orders.filter(order =>
-      ['IN_TRANSIT', 'OUT_FOR_DELIVERY'].includes(order.status)
-    ).length;
-
-    const today = new Date();
-    today.setHours(0, 0, 0, 0);
-    const deliveredToday = this.orders.filter(order => {
-      if (order.status !== 'DELIVERED') return false;
-      const updatedDate = new Date(order.updatedAt);
-      updatedDate.setHours(0, 0, 0, 0);
-      return updatedDate.getTime() === today.getTime();
-    }).length;
-
-    document.getElementById('assignedOrders').textContent = assignedOrders;
-    document.getElementById('inTransitOrders').textContent = inTransitOrders;
-    document.getElementById('deliveredToday').textContent = deliveredToday;
-    document.getElementById('avgDeliveryTime').textContent = '24h'; // Placeholder
+    try {
+      const stats = await Utils.makeAPICall('/orders/stats');
+      const count = status => stats.byStatus[status] || 0;
+
+      document.getElementById('assignedOrders').textContent = stats.totalOrders;
+      document.getElementById('inTransitOrders').textContent = count('IN_TRANSIT') + count('OUT_FOR_DELIVERY');
+      document.getElementById('deliveredToday').textContent = stats.deliveredToday;
+      document.getElementById('avgDeliveryTime').textContent = '24h'; // Placeholder
+    } catch (error) {
+      console.error('Failed to load stats:', error);
+    }
   }
 
   async quickUpdateStatus() {
@@ -125,7 +136,7 @@ class CourierDashboard {
     const order = this.orders.find(o =>
       o.id === orderIdOrTracking ||
       o.orderNumber === orderIdOrTracking ||
-      o.shipping.trackingNumber === orderIdOrTracking
+      o.trackingNumber === orderIdOrTracking
     );
 
     if (order) {
@@ -186,8 +197,9 @@ class CourierDashboard {
   }
 
   // Single-order route (Leaflet)
-  viewRoute(orderId) {
-    const order = this.orders.find(o => o.id === orderId);
+  async viewRoute(orderId) {
+    // List entries are summaries; the full order carries both addresses
+    const order = await Utils.makeAPICall(`/orders/${orderId}`).catch(() => null);
     if (!order) {
       Utils.showNotification('Order not found.', 'error');
       return;
@@ -251,12 +263,22 @@ class CourierDashboard {
     this.openMultiStopModal(false);
   }
 
-  optimizeRoute() {
-    // for now rely on same order; later replace order with backend-optimized sequence
-    this.openMultiStopModal(true);
+  // Visiting order planned server-side from the courier's open orders
+  async optimizeRoute() {
+    try {
+      const plan = await Utils.makeAPICall('/couriers/me/route');
+      if (!plan.stops.length) {
+        Utils.showNotification('No orders with coordinates to route.', 'warning');
+        return;
+      }
+      this.openMultiStopModal(true, plan);
+    } catch (error) {
+      console.error('Failed to optimize route:', error);
+      Utils.showNotification('Failed to optimize route.', 'error');
+    }
   }
 
-  openMultiStopModal(optimize) {
+  openMultiStopModal(optimize, plan = null) {
     if (!this.orders.length) {
       Utils.showNotification('No orders to route.', 'warning');
       return;
@@ -279,26 +301,33 @@ class CourierDashboard {
     `;
     document.body.appendChild(modal);
     modal.addEventListener('click', (e) => { if (e.target === modal) modal.remove(); });
-    setTimeout(() => this.initMultiStopMap(optimize), 80);
+    setTimeout(() => this.initMultiStopMap(optimize, plan), 80);
   }
 
-  initMultiStopMap(optimize) {
+  initMultiStopMap(optimize, plan = null) {
     const mapEl = document.getElementById('optimized-route-map');
     const infoEl = document.getElementById('optimized-route-info');
     if (!mapEl) return;
 
-    // Build waypoint list: start = first pickup, then all deliveries
-    const start = [
-      this.orders[0]?.shipping?.from?.latitude ?? 20.5937,
-      this.orders[0]?.shipping?.from?.longitude ?? 78.9629
-    ];
-    const stops = this.orders.map(o => [o.shipping?.to?.latitude, o.shipping?.to?.longitude])
-      .filter(p => Array.isArray(p) && isFinite(p[0]) && isFinite(p[1]));
-
-    let sequence = [start, ...stops];
+    let start, stops, labels;
+    if (optimize && plan) {
+      // Planned order: pickups at their origin, collected parcels at their destination
+      stops = plan.stops.map(s => [s.latitude, s.longitude]);
+      labels = plan.stops.map((s, i) =>
+        `${s.type === 'PICKUP' ? '📦 Pickup' : '🏠 Stop'} ${i+1} - ${s.orderNumber || ''}`);
+      start = plan.startLatitude != null ? [plan.startLatitude, plan.startLongitude] : stops[0];
+    } else {
+      // Build waypoint list: start = first pickup, then all deliveries
+      start = [
+        this.orders[0]?.originLatitude ?? 20.5937,
+        this.orders[0]?.originLongitude ?? 78.9629
+      ];
+      stops = this.orders.map(o => [o.destinationLatitude, o.destinationLongitude])
+        .filter(p => Array.isArray(p) && isFinite(p[0]) && isFinite(p[1]));
+      labels = stops.map((p, i) => `🏠 Stop ${i+1} - ${this.orders[i]?.orderNumber || ''}`);
+    }
 
-    // simple “optimization” placeholder (keep as-is; replace with backend order if available)
-    // if (optimize) sequence = optimizedSequenceFromBackend || sequence;
+    const sequence = plan && plan.startLatitude == null ? stops : [start, ...stops];
 
     const map = L.map('optimized-route-map').setView(start, 6);
     L.tileLayer('https://{s}.tile.openstreetmap.org/{z}/{x}/{y}.png', {
@@ -306,9 +335,9 @@ class CourierDashboard {
     }).addTo(map);
 
     // Markers
-    const startMarker = L.marker(start).addTo(map).bindPopup('📦 Start (Pickup)');
+    const startMarker = L.marker(start).addTo(map).bindPopup(plan ? '🚚 Start' : '📦 Start (Pickup)');
     const deliveryMarkers = stops.map((p, i) =>
-      L.marker(p).addTo(map).bindPopup(`🏠 Stop ${i+1} - ${this.orders[i]?.orderNumber || ''}`)
+      L.marker(p).addTo(map).bindPopup(labels[i])
     );
 
     // Polyline